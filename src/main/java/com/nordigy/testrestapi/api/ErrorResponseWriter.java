@@ -0,0 +1,27 @@
+package com.nordigy.testrestapi.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nordigy.testrestapi.model.error.ErrorResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Writes an {@link ErrorResponse} straight to the servlet response, for code that runs outside of
+ * Spring MVC (filters) but has to answer in the same format as {@link ExceptionHandlerController}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ErrorResponseWriter {
+
+    private final ObjectMapper objectMapper;
+
+    public void write(HttpServletResponse response, ErrorResponse errorResponse) throws IOException {
+        response.setStatus(errorResponse.getStatus().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -8,10 +8,10 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.rest.core.RepositoryConstraintViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
-import org.springframework.util.MimeType;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.Errors;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
@@ -25,10 +25,8 @@ import org.springframework.web.servlet.NoHandlerFoundException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import javax.persistence.EntityNotFoundException;
-import java.util.stream.Collectors;
 
 import static com.nordigy.testrestapi.model.error.ErrorResponse.builder;
-import static java.lang.String.format;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
@@ -46,7 +44,7 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
             HttpStatus status, WebRequest request) {
         return buildResponseEntity(builder()
                 .status(BAD_REQUEST)
-                .message(format("Parameter is missing: %s", ex.getParameterName()))
+                .message("Parameter is missing: " + ex.getParameterName())
                 .debugMessage(ex.getLocalizedMessage())
                 .build());
     }
@@ -82,7 +80,7 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
             HttpStatus status, WebRequest request) {
         return buildResponseEntity(builder()
                 .status(BAD_REQUEST)
-                .message(format("Unsupported method %s with URL %s", ex.getHttpMethod(), ex.getRequestURL()))
+                .message("Unsupported method " + ex.getHttpMethod() + " with URL " + ex.getRequestURL())
                 .debugMessage(ex.getMessage())
                 .build());
     }
@@ -91,8 +89,8 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
     protected ResponseEntity<Object> handleHttpMediaTypeNotSupported(
             HttpMediaTypeNotSupportedException ex, HttpHeaders headers,
             HttpStatus status, WebRequest request) {
-        String supportedTypes = ex.getSupportedMediaTypes().stream().map(MimeType::toString).collect(Collectors.joining(", "));
-        String message = format("%s media type is not supported. Supported media types: %s", ex.getContentType(), supportedTypes);
+        String message = ex.getContentType() + " media type is not supported. Supported media types: "
+                + MediaType.toString(ex.getSupportedMediaTypes());
         return buildResponseEntity(builder()
                 .status(UNSUPPORTED_MEDIA_TYPE)
                 .message(message)
@@ -158,8 +156,8 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
             MethodArgumentTypeMismatchException ex, WebRequest request) {
         return buildResponseEntity(builder()
                 .status(BAD_REQUEST)
-                .message(format("The parameter '%s' of value '%s' could not be converted to type '%s'", ex.getName(), ex.getValue(),
-                        ex.getRequiredType().getSimpleName()))
+                .message("The parameter '" + ex.getName() + "' of value '" + ex.getValue()
+                        + "' could not be converted to type '" + ex.getRequiredType().getSimpleName() + "'")
                 .debugMessage(ex.getMessage())
                 .build());
     }
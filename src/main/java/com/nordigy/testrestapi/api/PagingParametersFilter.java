@@ -0,0 +1,176 @@
+package com.nordigy.testrestapi.api;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.core.mapping.MethodResourceMapping;
+import org.springframework.data.rest.core.mapping.ResourceMappings;
+import org.springframework.data.rest.core.mapping.ResourceMetadata;
+import org.springframework.data.rest.core.mapping.SearchResourceMappings;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drops {@code page} and {@code size} parameters that are not integers before they reach Spring Data.
+ * <p>
+ * Spring Data parses them with {@link Integer#parseInt} and falls back to the default page or page size when
+ * that throws, so a dropped parameter gives the same page while sparing an exception per bad request.
+ * Only the paged resources exported by Spring Data REST are filtered: other handlers under the same base path
+ * bind the parameters themselves and reject malformed values.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class PagingParametersFilter extends OncePerRequestFilter {
+
+    private final String pageParameter;
+    private final String sizeParameter;
+    private final String basePath;
+    private final ObjectProvider<ResourceMappings> resourceMappings;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+    private volatile Set<String> pagedPaths;
+
+    /**
+     * The resource mappings are resolved on the first request: filters are created before the repositories.
+     */
+    public PagingParametersFilter(RepositoryRestConfiguration configuration,
+                                  ObjectProvider<ResourceMappings> resourceMappings) {
+        this.pageParameter = configuration.getPageParamName();
+        this.sizeParameter = configuration.getLimitParamName();
+        this.basePath = configuration.getBasePath().toString();
+        this.resourceMappings = resourceMappings;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        String path = urlPathHelper.getPathWithinApplication(request);
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return !getPagedPaths().contains(path);
+    }
+
+    /**
+     * The collection resources and paged query methods of the exported repositories.
+     */
+    private Set<String> getPagedPaths() {
+        Set<String> paths = pagedPaths;
+        if (paths == null) {
+            paths = new HashSet<>();
+            for (ResourceMetadata metadata : resourceMappings.getObject()) {
+                if (!metadata.isExported()) {
+                    continue;
+                }
+                if (metadata.isPagingResource()) {
+                    paths.add(basePath + metadata.getPath());
+                }
+                SearchResourceMappings searchMappings = metadata.getSearchResourceMappings();
+                for (MethodResourceMapping mapping : searchMappings) {
+                    if (mapping.isExported() && mapping.isPagingResource()) {
+                        paths.add(basePath + metadata.getPath().slash(searchMappings.getPath()).slash(mapping.getPath()));
+                    }
+                }
+            }
+            pagedPaths = paths;
+        }
+        return paths;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean dropPage = !isInteger(request.getParameter(pageParameter));
+        boolean dropSize = !isInteger(request.getParameter(sizeParameter));
+        if (!dropPage && !dropSize) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Map<String, String[]> parameters = new LinkedHashMap<>(request.getParameterMap());
+        if (dropPage) {
+            parameters.remove(pageParameter);
+        }
+        if (dropSize) {
+            parameters.remove(sizeParameter);
+        }
+        filterChain.doFilter(new FilteredParametersRequest(request, parameters), response);
+    }
+
+    /**
+     * Whether Spring Data parses the value without a {@link NumberFormatException}; blank values are not
+     * parsed at all.
+     */
+    static boolean isInteger(String value) {
+        if (!StringUtils.hasText(value)) {
+            return true;
+        }
+        int length = value.length();
+        int start = value.charAt(0) == '-' || value.charAt(0) == '+' ? 1 : 0;
+        if (start == length) {
+            return false;
+        }
+        long limit = value.charAt(0) == '-' ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long parsed = 0;
+        for (int i = start; i < length; i++) {
+            // Integer.parseInt accepts any Unicode digit.
+            int digit = Character.digit(value.charAt(i), 10);
+            if (digit < 0) {
+                return false;
+            }
+            parsed = parsed * 10 + digit;
+            if (parsed > limit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class FilteredParametersRequest extends HttpServletRequestWrapper {
+
+        private final Map<String, String[]> parameters;
+
+        FilteredParametersRequest(HttpServletRequest request, Map<String, String[]> parameters) {
+            super(request);
+            this.parameters = Collections.unmodifiableMap(parameters);
+        }
+
+        @Override
+        public String getParameter(String name) {
+            String[] values = parameters.get(name);
+            return values == null || values.length == 0 ? null : values[0];
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            return parameters;
+        }
+
+        @Override
+        public Enumeration<String> getParameterNames() {
+            return Collections.enumeration(parameters.keySet());
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            return parameters.get(name);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.nordigy.testrestapi.api;
+
+import com.nordigy.testrestapi.init.DataInitializer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+import static com.nordigy.testrestapi.model.error.ErrorResponse.builder;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+@RestController
+@RequiredArgsConstructor
+public class ReadinessController {
+
+    private final DataInitializer dataInitializer;
+
+    @GetMapping("/api/readiness")
+    public ResponseEntity<Object> readiness() {
+        RuntimeException failure = dataInitializer.getFailure();
+        if (failure != null) {
+            return new ResponseEntity<>(builder()
+                    .status(SERVICE_UNAVAILABLE)
+                    .message("Data initialization failed")
+                    .debugMessage(failure.getMessage())
+                    .build(), SERVICE_UNAVAILABLE);
+        }
+        if (!dataInitializer.isInitialized()) {
+            return new ResponseEntity<>(builder()
+                    .status(SERVICE_UNAVAILABLE)
+                    .message("Data initialization is in progress")
+                    .build(), SERVICE_UNAVAILABLE);
+        }
+        return ResponseEntity.ok(Map.of("status", "UP"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.nordigy.testrestapi.api;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves a packaged Swagger spec instead of letting Springfox scan all handlers on startup.
+ * Enabled with {@code startup.static-api-docs=true}, which also switches {@code SpringfoxConfiguration} off.
+ * The spec is checked in as {@value #API_DOCS}; {@code ApiDocsExportTest} fails when it no longer matches
+ * the spec Springfox generates.
+ */
+@RestController
+@ConditionalOnProperty(prefix = "startup", name = "static-api-docs", havingValue = "true")
+public class StaticApiDocsController {
+
+    private static final String API_DOCS = "swagger/api-docs.json";
+    private static final String API_DOCS_PATH = "/v2/api-docs";
+
+    private volatile byte[] apiDocs;
+
+    @GetMapping(path = API_DOCS_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] apiDocs() {
+        byte[] content = apiDocs;
+        if (content == null) {
+            ClassPathResource resource = new ClassPathResource(API_DOCS);
+            if (!resource.exists()) {
+                throw new EntityNotFoundException("API docs are not packaged with the application");
+            }
+            try (InputStream inputStream = resource.getInputStream()) {
+                content = StreamUtils.copyToByteArray(inputStream);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            apiDocs = content;
+        }
+        return content;
+    }
+
+    @GetMapping("/swagger-resources")
+    public List<Map<String, String>> swaggerResources() {
+        return List.of(Map.of(
+                "name", "default",
+                "url", API_DOCS_PATH,
+                "location", API_DOCS_PATH,
+                "swaggerVersion", "2.0"));
+    }
+
+    @GetMapping({"/swagger-resources/configuration/ui", "/swagger-resources/configuration/security"})
+    public Map<String, Object> swaggerConfiguration() {
+        return Map.of();
+    }
+}
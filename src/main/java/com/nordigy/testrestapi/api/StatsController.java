@@ -0,0 +1,23 @@
+package com.nordigy.testrestapi.api;
+
+import com.nordigy.testrestapi.repository.singleflight.SingleFlightRepositoryPostProcessor;
+import com.nordigy.testrestapi.repository.singleflight.SingleFlightStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "single-flight", name = "enabled", havingValue = "true")
+public class StatsController {
+
+    private final SingleFlightRepositoryPostProcessor singleFlight;
+
+    @GetMapping("/single-flight")
+    public SingleFlightStats singleFlight() {
+        return singleFlight.getStats();
+    }
+}
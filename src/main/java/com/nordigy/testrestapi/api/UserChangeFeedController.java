@@ -0,0 +1,40 @@
+package com.nordigy.testrestapi.api;
+
+import com.nordigy.testrestapi.config.ChangeFeedProperties;
+import com.nordigy.testrestapi.model.UserChangeBatch;
+import com.nordigy.testrestapi.repository.changefeed.UserChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/users/changes")
+@RequiredArgsConstructor
+public class UserChangeFeedController {
+
+    private final UserChangeFeed changeFeed;
+    private final ChangeFeedProperties properties;
+
+    @GetMapping
+    public UserChangeBatch changes(@RequestParam(required = false) String since,
+                                   @RequestParam(defaultValue = "100") int limit) {
+        return changeFeed.changesSince(since, Math.max(1, limit));
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                             @RequestParam(required = false) String since) throws IOException {
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout().toMillis());
+        // Commits the response headers right away, clients otherwise only see the stream open with the first change.
+        emitter.send(SseEmitter.event().comment("subscribed"));
+        changeFeed.subscribe(emitter, lastEventId != null ? lastEventId : since);
+        return emitter;
+    }
+}
@@ -0,0 +1,41 @@
+package com.nordigy.testrestapi.api;
+
+import com.nordigy.testrestapi.model.UserScanPage;
+import com.nordigy.testrestapi.model.UserScanPlan;
+import com.nordigy.testrestapi.repository.scan.UserScanPlanner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Parallel export of all users: a client plans the splits once, then reads every split page by page,
+ * typically one split per worker.
+ */
+@RestController
+@RequestMapping("/api/users/scan")
+@RequiredArgsConstructor
+public class UserScanController {
+
+    private static final int MAX_PARTITIONS = 256;
+    private static final int MAX_PAGE_SIZE = 10_000;
+
+    private final UserScanPlanner planner;
+
+    @GetMapping("/plan")
+    public UserScanPlan plan(@RequestParam(defaultValue = "4") int partitions) {
+        return planner.plan(Math.max(1, Math.min(partitions, MAX_PARTITIONS)));
+    }
+
+    /**
+     * One page of the split {@code (after, upTo]}; {@code size} is named like the paging parameter of
+     * /api/users so that large scans are routed like exports.
+     */
+    @GetMapping
+    public UserScanPage scan(@RequestParam long after,
+                             @RequestParam long upTo,
+                             @RequestParam(defaultValue = "1000") int size) {
+        return planner.scan(after, upTo, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.nordigy.testrestapi.api.admission;
+
+import com.nordigy.testrestapi.config.AdmissionControlProperties.Concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global limit of requests in flight, adjusted AIMD-style: it grows by one while requests finish within
+ * the target latency and shrinks by {@value #BACKOFF_RATIO} (at most once per target latency window) when they don't.
+ */
+class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger limit;
+    private final AtomicLong lastBackoffNanos = new AtomicLong();
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+
+    AdaptiveConcurrencyLimit(Concurrency concurrency) {
+        this.minLimit = concurrency.getMinLimit();
+        this.maxLimit = concurrency.getMaxLimit();
+        this.targetLatencyNanos = concurrency.getTargetLatency().toNanos();
+        this.limit = new AtomicInteger(Math.min(maxLimit, Math.max(minLimit, concurrency.getInitialLimit())));
+        this.lastBackoffNanos.set(System.nanoTime() - targetLatencyNanos);
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long latencyNanos, long nowNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (latencyNanos > targetLatencyNanos) {
+            long lastBackoff = lastBackoffNanos.get();
+            if (nowNanos - lastBackoff >= targetLatencyNanos && lastBackoffNanos.compareAndSet(lastBackoff, nowNanos)) {
+                limit.updateAndGet(current -> Math.max(minLimit, (int) (current * BACKOFF_RATIO)));
+            }
+        } else if (inFlightBefore * 2 >= limit.get()) {
+            // Only probe upwards while the limit is actually being used.
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    int getLimit() {
+        return limit.get();
+    }
+}
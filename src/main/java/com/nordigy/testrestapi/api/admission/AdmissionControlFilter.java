@@ -0,0 +1,166 @@
+package com.nordigy.testrestapi.api.admission;
+
+import com.nordigy.testrestapi.api.ErrorResponseWriter;
+import com.nordigy.testrestapi.config.AdmissionControlProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.nordigy.testrestapi.model.error.ErrorResponse.builder;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    private final String usersPath;
+    private final String changeStreamPath;
+    private final AdmissionControlProperties properties;
+    private final ErrorResponseWriter errorResponseWriter;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final ConcurrentMap<String, ClientRateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public AdmissionControlFilter(AdmissionControlProperties properties, ErrorResponseWriter errorResponseWriter,
+                                  RepositoryRestConfiguration repositoryRestConfiguration) {
+        this.usersPath = repositoryRestConfiguration.getBasePath() + "/users";
+        this.changeStreamPath = usersPath + "/changes/stream";
+        this.properties = properties;
+        this.errorResponseWriter = errorResponseWriter;
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(properties.getConcurrency());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        String path = urlPathHelper.getPathWithinApplication(request);
+        return !path.startsWith(usersPath)
+                || path.length() > usersPath.length() && path.charAt(usersPath.length()) != '/';
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String method = request.getMethod();
+        String clientKey = clientKey(request);
+        long waitNanos = rateLimiter(method).tryAcquire(clientKey, System.nanoTime());
+        if (waitNanos > 0) {
+            log.debug("Rate limit exceeded for {} requests of client {}", method, clientKey);
+            // Rounded up, a client retrying after a rounded down wait would be rejected again.
+            long retryAfterSeconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            reject(response, "Rate limit exceeded for " + method + " requests");
+            return;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            log.debug("Concurrency limit of {} requests reached", concurrencyLimit.getLimit());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            reject(response, "Concurrency limit of " + concurrencyLimit.getLimit() + " requests reached");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            // A change stream stays open for its whole lifetime and must not hold a concurrency permit for it.
+            if (request.isAsyncStarted() && !urlPathHelper.getPathWithinApplication(request).equals(changeStreamPath)) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(start));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                long now = System.nanoTime();
+                concurrencyLimit.release(now - start, now);
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, String debugMessage) throws IOException {
+        errorResponseWriter.write(response, builder()
+                .status(TOO_MANY_REQUESTS)
+                .message("Too many requests")
+                .debugMessage(debugMessage)
+                .build());
+    }
+
+    private ClientRateLimiter rateLimiter(String method) {
+        return rateLimiters.computeIfAbsent(method,
+                key -> new ClientRateLimiter(properties.limitFor(key), properties.getMaxTrackedClients(), System.nanoTime()));
+    }
+
+    /**
+     * The client header is set by the caller, so it is only taken as the client key when the request comes
+     * through one of the trusted proxies; anyone else could pick a new id for every request.
+     */
+    private String clientKey(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (properties.getTrustedProxies().contains(remoteAddress)) {
+            String clientId = request.getHeader(properties.getClientHeader());
+            if (StringUtils.hasText(clientId)) {
+                return clientId;
+            }
+        }
+        return remoteAddress;
+    }
+
+    private class ReleasingAsyncListener implements AsyncListener {
+
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleasingAsyncListener(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                long now = System.nanoTime();
+                concurrencyLimit.release(now - start, now);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.nordigy.testrestapi.api.admission;
+
+import com.nordigy.testrestapi.config.AdmissionControlProperties.RateLimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Token buckets of a single HTTP method, one per client key.
+ * <p>
+ * At most about {@code maxTrackedClients} buckets are kept. Full buckets are evicted first, as they hold no
+ * state; once the remaining buckets still reach the cap, new clients share one overflow bucket, so that cycling
+ * through client keys neither grows the map nor earns fresh bursts.
+ */
+class ClientRateLimiter {
+
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final RateLimit limit;
+    private final int maxTrackedClients;
+    private final TokenBucket overflow;
+
+    ClientRateLimiter(RateLimit limit, int maxTrackedClients, long nowNanos) {
+        this.limit = limit;
+        this.maxTrackedClients = maxTrackedClients;
+        this.overflow = new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst(), nowNanos);
+    }
+
+    long tryAcquire(String clientKey, long nowNanos) {
+        TokenBucket bucket = buckets.get(clientKey);
+        if (bucket == null) {
+            if (buckets.size() >= maxTrackedClients) {
+                evictFullBuckets(nowNanos);
+                if (buckets.size() >= maxTrackedClients) {
+                    return overflow.tryAcquire(nowNanos);
+                }
+            }
+            bucket = buckets.computeIfAbsent(clientKey,
+                    key -> new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst(), nowNanos));
+        }
+        return bucket.tryAcquire(nowNanos);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private void evictFullBuckets(long nowNanos) {
+        if (evicting.compareAndSet(false, true)) {
+            try {
+                buckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+}
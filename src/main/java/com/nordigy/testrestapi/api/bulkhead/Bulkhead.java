@@ -0,0 +1,192 @@
+package com.nordigy.testrestapi.api.bulkhead;
+
+import com.nordigy.testrestapi.api.ErrorResponseWriter;
+import com.nordigy.testrestapi.config.BulkheadProperties.Pool;
+import com.nordigy.testrestapi.model.error.ErrorResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.nordigy.testrestapi.model.error.ErrorResponse.builder;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * A bounded executor for one class of requests. Requests that do not fit into the queue, or that wait
+ * in it longer than the queue timeout, are answered with 503 instead of piling up. So are queued requests
+ * that exceed the async request timeout. A running request owns its response until it finishes: it is only
+ * bounded by the query timeout, and the container thread that sees its request timeout waits for it.
+ */
+public class Bulkhead {
+
+    private static final Logger log = LoggerFactory.getLogger(Bulkhead.class);
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService timer;
+    private final Duration queueTimeout;
+    private final ErrorResponseWriter errorResponseWriter;
+    private final String fullMessage;
+    private final String queueTimeoutMessage;
+    private final String requestTimeoutMessage;
+
+    Bulkhead(String name, Pool pool, Duration requestTimeout, ScheduledExecutorService timer,
+             ErrorResponseWriter errorResponseWriter) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(pool.getThreads(), pool.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(pool.getQueueCapacity()), new CustomizableThreadFactory("bulkhead-" + name + "-"));
+        this.timer = timer;
+        this.queueTimeout = pool.getQueueTimeout();
+        this.errorResponseWriter = errorResponseWriter;
+        this.fullMessage = "Bulkhead '" + name + "' is full";
+        this.queueTimeoutMessage = "Request waited in bulkhead '" + name + "' for more than " + queueTimeout.toMillis() + " ms";
+        this.requestTimeoutMessage = "Request in bulkhead '" + name + "' took more than " + requestTimeout.toMillis() + " ms";
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void submit(AsyncContext asyncContext, Work work) {
+        Task task = new Task(asyncContext, work);
+        asyncContext.addListener(task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            task.reject(fullMessage);
+            return;
+        }
+        task.expiry = timer.schedule(() -> task.reject(queueTimeoutMessage), queueTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    public interface Work {
+        void run() throws ServletException, IOException;
+    }
+
+    private class Task implements Runnable, AsyncListener {
+
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final AsyncContext asyncContext;
+        private final Work work;
+        private volatile ScheduledFuture<?> expiry;
+
+        Task(AsyncContext asyncContext, Work work) {
+            this.asyncContext = asyncContext;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return;
+            }
+            ScheduledFuture<?> scheduledExpiry = expiry;
+            if (scheduledExpiry != null) {
+                scheduledExpiry.cancel(false);
+            }
+            try {
+                work.run();
+            } catch (Exception ex) {
+                log.error("Request failed in bulkhead '{}'", name, ex);
+                writeError(builder()
+                        .status(INTERNAL_SERVER_ERROR)
+                        .message("Server error")
+                        .debugMessage(ex.getLocalizedMessage()));
+            } finally {
+                state.set(DONE);
+                asyncContext.complete();
+                finished.countDown();
+            }
+        }
+
+        /**
+         * Runs on a container thread when the async request timeout expires. A queued request is answered with
+         * 503. A running request is still writing its response: completing the request here would let the
+         * container recycle the response under the bulkhead thread, so this waits until the request finishes
+         * and completes itself.
+         */
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            if (reject(requestTimeoutMessage)) {
+                return;
+            }
+            if (state.get() == RUNNING) {
+                log.warn("Request in bulkhead '{}' is still running after its request timeout, waiting for it", name);
+            }
+            try {
+                finished.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        /**
+         * @return whether the request was still queued and has been answered
+         */
+        boolean reject(String debugMessage) {
+            if (!state.compareAndSet(QUEUED, DONE)) {
+                return false;
+            }
+            executor.remove(this);
+            log.debug(debugMessage);
+            writeError(builder()
+                    .status(SERVICE_UNAVAILABLE)
+                    .message("Service is overloaded")
+                    .debugMessage(debugMessage));
+            asyncContext.complete();
+            finished.countDown();
+            return true;
+        }
+
+        private void writeError(ErrorResponse.Builder errorResponse) {
+            HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+            if (response.isCommitted()) {
+                return;
+            }
+            try {
+                response.resetBuffer();
+                errorResponseWriter.write(response, errorResponse.build());
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Failed to write error response", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.nordigy.testrestapi.api.bulkhead;
+
+import org.springframework.web.servlet.DispatcherServlet;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Releases the servlet container thread as soon as a request is handed over to its bulkhead; the request
+ * is then processed by the regular {@link DispatcherServlet} pipeline on the bulkhead thread.
+ */
+public class BulkheadDispatcherServlet extends DispatcherServlet {
+
+    private final transient Bulkheads bulkheads;
+
+    public BulkheadDispatcherServlet(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        Bulkhead bulkhead = request.getDispatcherType() == DispatcherType.REQUEST && request.isAsyncSupported()
+                ? bulkheads.route(request)
+                : null;
+        if (bulkhead == null) {
+            super.service(request, response);
+            return;
+        }
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(bulkheads.getRequestTimeout().toMillis());
+        bulkhead.submit(asyncContext, () -> super.service(request, response));
+    }
+}
@@ -0,0 +1,75 @@
+package com.nordigy.testrestapi.api.bulkhead;
+
+import com.nordigy.testrestapi.api.ErrorResponseWriter;
+import com.nordigy.testrestapi.config.BulkheadProperties;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Routes /api/users requests to separate bulkheads, so that cheap reads never queue behind writes or exports.
+ */
+public class Bulkheads implements DisposableBean {
+
+    private final String usersPath;
+    private final String changeStreamPath;
+    private final BulkheadProperties properties;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Bulkhead read;
+    private final Bulkhead write;
+    private final Bulkhead export;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public Bulkheads(BulkheadProperties properties, ErrorResponseWriter errorResponseWriter,
+                     RepositoryRestConfiguration repositoryRestConfiguration) {
+        this.usersPath = repositoryRestConfiguration.getBasePath() + "/users";
+        this.changeStreamPath = usersPath + "/changes/stream";
+        this.properties = properties;
+        this.timer = (ScheduledThreadPoolExecutor) Executors.newScheduledThreadPool(1,
+                new CustomizableThreadFactory("bulkhead-timer-"));
+        this.timer.setRemoveOnCancelPolicy(true);
+        Duration requestTimeout = properties.getRequestTimeout();
+        this.read = new Bulkhead("read", properties.getRead(), requestTimeout, timer, errorResponseWriter);
+        this.write = new Bulkhead("write", properties.getWrite(), requestTimeout, timer, errorResponseWriter);
+        this.export = new Bulkhead("export", properties.getExport(), requestTimeout, timer, errorResponseWriter);
+    }
+
+    public Duration getRequestTimeout() {
+        return properties.getRequestTimeout();
+    }
+
+    /**
+     * @return the bulkhead to run the request on, or {@code null} if it should run on the calling thread.
+     * Change streams are already asynchronous and never hold a bulkhead thread.
+     */
+    public Bulkhead route(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        if (!path.startsWith(usersPath)
+                || path.length() > usersPath.length() && path.charAt(usersPath.length()) != '/'
+                || path.equals(changeStreamPath)) {
+            return null;
+        }
+        HttpMethod method = HttpMethod.resolve(request.getMethod());
+        if (method != HttpMethod.GET && method != HttpMethod.HEAD) {
+            return write;
+        }
+        int size = NumberUtils.toInt(request.getParameter("size"), 0);
+        return size > properties.getExportPageSize() ? export : read;
+    }
+
+    @Override
+    public void destroy() {
+        read.shutdown();
+        write.shutdown();
+        export.shutdown();
+        timer.shutdown();
+    }
+}
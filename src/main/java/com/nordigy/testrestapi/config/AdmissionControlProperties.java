@@ -0,0 +1,67 @@
+package com.nordigy.testrestapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionControlProperties {
+
+    /**
+     * Off by default: without {@link #trustedProxies}, all clients behind a load balancer share the limits of
+     * the balancer's address.
+     */
+    private boolean enabled;
+    /**
+     * Header identifying the client, set by a trusted proxy. Other requests are keyed by the remote address.
+     */
+    private String clientHeader = "X-Client-Id";
+    /**
+     * Remote addresses of the proxies whose {@link #clientHeader} is trusted. None by default.
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+    /**
+     * Soft cap on the number of per-client buckets kept in memory per HTTP method. Clients beyond it share one
+     * bucket.
+     */
+    private int maxTrackedClients = 10_000;
+    private RateLimit defaultLimit = new RateLimit();
+    /**
+     * Per HTTP method overrides of {@link #defaultLimit}, e.g. {@code admission.methods.POST.permits-per-second=20}.
+     */
+    private Map<String, RateLimit> methods = new HashMap<>();
+    private Concurrency concurrency = new Concurrency();
+
+    public RateLimit limitFor(String method) {
+        return methods.entrySet().stream()
+                .filter(entry -> entry.getKey().equalsIgnoreCase(method))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(defaultLimit);
+    }
+
+    @Data
+    public static class RateLimit {
+        private double permitsPerSecond = 100;
+        private int burst = 200;
+    }
+
+    @Data
+    public static class Concurrency {
+        private int initialLimit = 64;
+        private int minLimit = 8;
+        private int maxLimit = 512;
+        /**
+         * Requests slower than this shrink the global concurrency limit, faster ones let it grow.
+         */
+        private Duration targetLatency = Duration.ofMillis(250);
+    }
+}
@@ -0,0 +1,42 @@
+package com.nordigy.testrestapi.config;
+
+import com.nordigy.testrestapi.api.ErrorResponseWriter;
+import com.nordigy.testrestapi.api.bulkhead.BulkheadDispatcherServlet;
+import com.nordigy.testrestapi.api.bulkhead.Bulkheads;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.web.servlet.DispatcherServlet;
+
+@Configuration
+@ConditionalOnProperty(prefix = "bulkhead", name = "enabled", havingValue = "true")
+public class BulkheadConfiguration {
+
+    @Bean
+    public Bulkheads bulkheads(BulkheadProperties properties, ErrorResponseWriter errorResponseWriter,
+                               RepositoryRestConfiguration repositoryRestConfiguration) {
+        return new Bulkheads(properties, errorResponseWriter, repositoryRestConfiguration);
+    }
+
+    @Bean(name = DispatcherServletAutoConfiguration.DEFAULT_DISPATCHER_SERVLET_BEAN_NAME)
+    public DispatcherServlet dispatcherServlet(Bulkheads bulkheads, WebMvcProperties webMvcProperties) {
+        DispatcherServlet dispatcherServlet = new BulkheadDispatcherServlet(bulkheads);
+        dispatcherServlet.setDispatchOptionsRequest(webMvcProperties.isDispatchOptionsRequest());
+        dispatcherServlet.setDispatchTraceRequest(webMvcProperties.isDispatchTraceRequest());
+        dispatcherServlet.setThrowExceptionIfNoHandlerFound(webMvcProperties.isThrowExceptionIfNoHandlerFound());
+        dispatcherServlet.setPublishEvents(webMvcProperties.isPublishRequestHandledEvents());
+        dispatcherServlet.setEnableLoggingRequestDetails(webMvcProperties.isLogRequestDetails());
+        return dispatcherServlet;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryTimeoutCustomizer(BulkheadProperties properties) {
+        // Hibernate only accepts this hint as an Integer or a String.
+        return hibernateProperties -> hibernateProperties.put("javax.persistence.query.timeout",
+                Math.toIntExact(properties.getQueryTimeout().toMillis()));
+    }
+}
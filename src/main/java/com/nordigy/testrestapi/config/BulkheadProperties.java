@@ -0,0 +1,52 @@
+package com.nordigy.testrestapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * Runs /api/users requests asynchronously on the bulkhead executors instead of Tomcat worker threads.
+     */
+    private boolean enabled = false;
+    /**
+     * GET requests asking for pages larger than this are treated as exports.
+     */
+    private int exportPageSize = 100;
+    /**
+     * Upper bound for a single database query executed on behalf of a request.
+     */
+    private Duration queryTimeout = Duration.ofSeconds(5);
+    /**
+     * Upper bound for a whole request, queueing included. Requests still unanswered after it get a 503.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(30);
+    private Pool read = new Pool(16, 256, Duration.ofSeconds(1));
+    private Pool write = new Pool(4, 64, Duration.ofSeconds(2));
+    private Pool export = new Pool(2, 8, Duration.ofSeconds(5));
+
+    @Data
+    public static class Pool {
+        private int threads;
+        private int queueCapacity;
+        /**
+         * Requests waiting in the queue longer than this are answered with 503.
+         */
+        private Duration queueTimeout;
+
+        public Pool() {
+        }
+
+        Pool(int threads, int queueCapacity, Duration queueTimeout) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.queueTimeout = queueTimeout;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.nordigy.testrestapi.config;
+
+import com.nordigy.testrestapi.repository.changefeed.ChangeFeedRepositoryPostProcessor;
+import com.nordigy.testrestapi.repository.changefeed.UserChangeFeed;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ChangeFeedConfiguration {
+
+    @Bean
+    public static ChangeFeedRepositoryPostProcessor changeFeedRepositoryPostProcessor(
+            ObjectProvider<UserChangeFeed> changeFeed) {
+        return new ChangeFeedRepositoryPostProcessor(changeFeed);
+    }
+}
@@ -0,0 +1,24 @@
+package com.nordigy.testrestapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "changefeed")
+public class ChangeFeedProperties {
+
+    /**
+     * Number of changes kept in memory. Clients whose sync token is older have to resync.
+     */
+    private int capacity = 10_000;
+    private int maxBatchSize = 500;
+    /**
+     * Number of changes queued for a stream subscriber. Subscribers that fall further behind are sent a resync.
+     */
+    private int subscriberQueueSize = 1000;
+    private Duration streamTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,40 @@
+package com.nordigy.testrestapi.config;
+
+import com.nordigy.testrestapi.repository.journal.JournalingRepositoryPostProcessor;
+import com.nordigy.testrestapi.repository.journal.UserJournal;
+import com.nordigy.testrestapi.repository.journal.UserJournalCoordinator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.nio.file.Paths;
+
+@Configuration
+@ConditionalOnProperty(prefix = "journal", name = "enabled", havingValue = "true")
+public class JournalConfiguration {
+
+    @Bean
+    public static JournalingRepositoryPostProcessor journalingRepositoryPostProcessor(
+            ObjectProvider<UserJournal> journal, ObjectProvider<PlatformTransactionManager> transactionManager,
+            ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        return new JournalingRepositoryPostProcessor(journal, transactionManager, entityManagerFactory);
+    }
+
+    @Bean
+    public UserJournal userJournal(JournalProperties properties) {
+        return new UserJournal(Paths.get(properties.getDirectory()), properties.getFsync(),
+                (int) properties.getMappingSize().toBytes());
+    }
+
+    @Bean
+    @Lazy(false)
+    public UserJournalCoordinator userJournalCoordinator(UserJournal userJournal, DataSource dataSource,
+                                                         JournalProperties properties) {
+        return new UserJournalCoordinator(userJournal, dataSource, properties);
+    }
+}
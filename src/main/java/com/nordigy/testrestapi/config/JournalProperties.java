@@ -0,0 +1,45 @@
+package com.nordigy.testrestapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "journal")
+public class JournalProperties {
+
+    /**
+     * Persists user mutations to an append-only journal and restores them on startup.
+     */
+    private boolean enabled = false;
+    private String directory = "data";
+    private FsyncPolicy fsync = FsyncPolicy.INTERVAL;
+    /**
+     * How often the journal is flushed to disk with {@link FsyncPolicy#INTERVAL}.
+     */
+    private Duration fsyncInterval = Duration.ofSeconds(1);
+    /**
+     * Size of each memory-mapped window of a journal segment.
+     */
+    private DataSize mappingSize = DataSize.ofMegabytes(64);
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+
+    public enum FsyncPolicy {
+        /**
+         * Flush after every mutation: nothing acknowledged is lost, at the cost of a disk flush per write.
+         */
+        ALWAYS,
+        /**
+         * Flush periodically: at most {@code fsync-interval} of mutations can be lost on a crash.
+         */
+        INTERVAL,
+        /**
+         * Leave flushing to the operating system: survives process crashes, not power loss.
+         */
+        NONE
+    }
+}
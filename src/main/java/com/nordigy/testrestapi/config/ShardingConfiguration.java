@@ -0,0 +1,78 @@
+package com.nordigy.testrestapi.config;
+
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.repository.sharding.ShardingRepositoryPostProcessor;
+import com.nordigy.testrestapi.repository.sharding.UserShard;
+import com.nordigy.testrestapi.repository.sharding.UserShards;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.H2Dialect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Configuration
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    @Bean
+    public static ShardingRepositoryPostProcessor shardingRepositoryPostProcessor(ObjectProvider<UserShards> userShards) {
+        return new ShardingRepositoryPostProcessor(userShards);
+    }
+
+    @Bean(destroyMethod = "close")
+    public UserShards userShards(ShardingProperties properties, JournalProperties journalProperties,
+                                 EntityManagerFactoryBuilder builder, JpaProperties jpaProperties,
+                                 HibernateProperties hibernateProperties) {
+        if (journalProperties.isEnabled()) {
+            throw new IllegalStateException("The journal persists the primary data source and cannot be used with sharding");
+        }
+        // Shards are always in-memory H2 databases, whatever the primary data source is.
+        Map<String, Object> jpa = hibernateProperties.determineHibernateProperties(
+                jpaProperties.getProperties(), new HibernateSettings().ddlAuto(() -> "create-drop"));
+        jpa.put(AvailableSettings.DIALECT, H2Dialect.class.getName());
+        jpa.put(AvailableSettings.HBM2DDL_AUTO, "create-drop");
+
+        String name = "users-" + UUID.randomUUID();
+        List<UserShard> shards = new ArrayList<>(properties.getShards());
+        try {
+            for (int i = 0; i < properties.getShards(); i++) {
+                HikariDataSource dataSource = dataSource(name + "-" + i, properties.getPoolSize());
+                try {
+                    shards.add(new UserShard(i, dataSource, builder.dataSource(dataSource)
+                            .packages(User.class)
+                            .persistenceUnit(name + "-" + i)
+                            .properties(jpa)
+                            .build()));
+                } catch (RuntimeException ex) {
+                    dataSource.close();
+                    throw ex;
+                }
+            }
+        } catch (RuntimeException ex) {
+            shards.forEach(UserShard::close);
+            throw ex;
+        }
+        return new UserShards(shards);
+    }
+
+    private static HikariDataSource dataSource(String name, int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        // Without DB_CLOSE_DELAY the database lives as long as the pool keeps a connection open.
+        config.setJdbcUrl("jdbc:h2:mem:" + name);
+        config.setMaximumPoolSize(poolSize);
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,21 @@
+package com.nordigy.testrestapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+
+    /**
+     * Partitions users by id across several in-memory H2 databases instead of the primary data source.
+     */
+    private boolean enabled = false;
+    private int shards = 4;
+    /**
+     * Maximum number of connections to each shard.
+     */
+    private int poolSize = 10;
+}
@@ -0,0 +1,18 @@
+package com.nordigy.testrestapi.config;
+
+import com.nordigy.testrestapi.repository.singleflight.SingleFlightRepositoryPostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "single-flight", name = "enabled", havingValue = "true")
+public class SingleFlightConfiguration {
+
+    @Bean
+    public static SingleFlightRepositoryPostProcessor singleFlightRepositoryPostProcessor(
+            ObjectProvider<SingleFlightProperties> properties) {
+        return new SingleFlightRepositoryPostProcessor(properties);
+    }
+}
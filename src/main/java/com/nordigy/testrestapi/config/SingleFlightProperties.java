@@ -0,0 +1,22 @@
+package com.nordigy.testrestapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "single-flight")
+public class SingleFlightProperties {
+
+    /**
+     * Lets concurrent identical repository reads of GET requests share one database call.
+     */
+    private boolean enabled = false;
+    /**
+     * How long a read waits for an identical read in flight before it queries the database itself.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(5);
+}
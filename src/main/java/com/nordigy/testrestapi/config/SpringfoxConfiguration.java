@@ -1,5 +1,6 @@
 package com.nordigy.testrestapi.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -17,6 +18,7 @@ import java.util.Collections;
 
 @EnableSwagger2WebMvc
 @Configuration
+@ConditionalOnProperty(prefix = "startup", name = "static-api-docs", havingValue = "false", matchIfMissing = true)
 @Import({ BeanValidatorPluginsConfiguration.class, SpringDataRestConfiguration.class })
 public class SpringfoxConfiguration {
 
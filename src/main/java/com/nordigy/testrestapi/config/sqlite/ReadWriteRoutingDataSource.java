@@ -0,0 +1,29 @@
+package com.nordigy.testrestapi.config.sqlite;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the reader pool and everything else to the writer.
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so that
+ * the connection is obtained after the transaction has been marked read-only.
+ */
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String WRITER = "writer";
+    private static final String READER = "reader";
+
+    ReadWriteRoutingDataSource(DataSource writer, DataSource reader) {
+        setTargetDataSources(Map.<Object, Object>of(WRITER, writer, READER, reader));
+        setDefaultTargetDataSource(writer);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? READER : WRITER;
+    }
+}
@@ -0,0 +1,87 @@
+package com.nordigy.testrestapi.config.sqlite;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.sqlite.SQLiteConfig;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * File-backed SQLite storage, enabled with the {@code sqlite} profile.
+ * <p>
+ * SQLite allows a single writer at a time, so writes share one connection instead of contending for the
+ * database lock, while WAL journaling lets a pool of read-only connections run next to it.
+ */
+@Configuration
+@Profile("sqlite")
+@EnableConfigurationProperties(SQLiteProperties.class)
+public class SQLiteConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public SQLiteConnectionPools sqliteConnectionPools(SQLiteProperties properties) {
+        createParentDirectories(properties.getPath());
+        SQLiteConfig writerConfig = baseConfig(properties);
+        // Persistent in the database file, so readers opened later see WAL mode as well.
+        writerConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        // The writer comes first: it creates the database file and switches it to WAL.
+        HikariDataSource writer = pool("sqlite-writer", properties, writerConfig, 1, false);
+        try {
+            SQLiteConfig readerConfig = baseConfig(properties);
+            readerConfig.setReadOnly(true);
+            return new SQLiteConnectionPools(writer,
+                    pool("sqlite-reader", properties, readerConfig, properties.getReadPoolSize(), true));
+        } catch (RuntimeException ex) {
+            writer.close();
+            throw ex;
+        }
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(SQLiteConnectionPools pools) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(pools.getWriter(), pools.getReader()));
+    }
+
+    private static SQLiteConfig baseConfig(SQLiteProperties properties) {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setSynchronous(properties.getSynchronous());
+        config.setCacheSize(properties.getCacheSize());
+        config.setBusyTimeout((int) properties.getBusyTimeout().toMillis());
+        config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        return config;
+    }
+
+    private static HikariDataSource pool(String name, SQLiteProperties properties, SQLiteConfig config, int size,
+                                         boolean readOnly) {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName(name);
+        hikariConfig.setDriverClassName("org.sqlite.JDBC");
+        hikariConfig.setJdbcUrl("jdbc:sqlite:" + properties.getPath());
+        hikariConfig.setDataSourceProperties(config.toProperties());
+        hikariConfig.setConnectionInitSql("PRAGMA mmap_size=" + properties.getMmapSize().toBytes());
+        hikariConfig.setMaximumPoolSize(size);
+        hikariConfig.setMinimumIdle(size);
+        hikariConfig.setReadOnly(readOnly);
+        return new HikariDataSource(hikariConfig);
+    }
+
+    private static void createParentDirectories(String path) {
+        Path parent = Paths.get(path).toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(parent);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to create directory for SQLite database " + path, ex);
+        }
+    }
+}
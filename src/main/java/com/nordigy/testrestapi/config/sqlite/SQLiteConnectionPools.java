@@ -0,0 +1,37 @@
+package com.nordigy.testrestapi.config.sqlite;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * The writer and reader pools behind the SQLite {@link javax.sql.DataSource}.
+ * <p>
+ * Deliberately not a {@code DataSource} itself: Boot initializes every {@code DataSource} bean against the
+ * primary one, which would have to be created while the pools it is made of are still being created.
+ */
+public class SQLiteConnectionPools implements AutoCloseable {
+
+    private final HikariDataSource writer;
+    private final HikariDataSource reader;
+
+    SQLiteConnectionPools(HikariDataSource writer, HikariDataSource reader) {
+        this.writer = writer;
+        this.reader = reader;
+    }
+
+    public HikariDataSource getWriter() {
+        return writer;
+    }
+
+    public HikariDataSource getReader() {
+        return reader;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.nordigy.testrestapi.config.sqlite;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.dialect.function.StandardSQLFunction;
+import org.hibernate.dialect.function.VarArgsSQLFunction;
+import org.hibernate.dialect.identity.IdentityColumnSupport;
+import org.hibernate.dialect.identity.IdentityColumnSupportImpl;
+import org.hibernate.dialect.pagination.AbstractLimitHandler;
+import org.hibernate.dialect.pagination.LimitHandler;
+import org.hibernate.dialect.pagination.LimitHelper;
+import org.hibernate.dialect.unique.DefaultUniqueDelegate;
+import org.hibernate.dialect.unique.UniqueDelegate;
+import org.hibernate.engine.spi.RowSelection;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.spi.SQLExceptionConversionDelegate;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.UniqueKey;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.sql.Types;
+
+/**
+ * Hibernate 5 does not ship a SQLite dialect. This one covers what the {@code User} entity and the
+ * QueryDSL predicates of the REST API need.
+ */
+public class SQLiteDialect extends Dialect {
+
+    private static final LimitHandler LIMIT_HANDLER = new AbstractLimitHandler() {
+        @Override
+        public String processSql(String sql, RowSelection selection) {
+            return sql + (LimitHelper.hasFirstRow(selection) ? " limit ? offset ?" : " limit ?");
+        }
+
+        @Override
+        public boolean supportsLimit() {
+            return true;
+        }
+
+        @Override
+        public boolean bindLimitParametersInReverseOrder() {
+            return true;
+        }
+    };
+
+    /**
+     * Primary result code of constraint violations; the driver may report an extended code in the upper bits.
+     */
+    private static final int SQLITE_CONSTRAINT = 19;
+
+    private final UniqueDelegate uniqueDelegate = new SQLiteUniqueDelegate(this);
+
+    public SQLiteDialect() {
+        registerColumnType(Types.BIT, "integer");
+        registerColumnType(Types.BOOLEAN, "integer");
+        registerColumnType(Types.TINYINT, "tinyint");
+        registerColumnType(Types.SMALLINT, "smallint");
+        registerColumnType(Types.INTEGER, "integer");
+        registerColumnType(Types.BIGINT, "bigint");
+        registerColumnType(Types.FLOAT, "float");
+        registerColumnType(Types.REAL, "real");
+        registerColumnType(Types.DOUBLE, "double");
+        registerColumnType(Types.NUMERIC, "numeric($p, $s)");
+        registerColumnType(Types.DECIMAL, "decimal($p, $s)");
+        registerColumnType(Types.CHAR, "char");
+        registerColumnType(Types.VARCHAR, "varchar($l)");
+        registerColumnType(Types.LONGVARCHAR, "longvarchar");
+        registerColumnType(Types.DATE, "date");
+        registerColumnType(Types.TIME, "time");
+        registerColumnType(Types.TIMESTAMP, "datetime");
+        registerColumnType(Types.BINARY, "blob");
+        registerColumnType(Types.VARBINARY, "blob");
+        registerColumnType(Types.LONGVARBINARY, "blob");
+        registerColumnType(Types.BLOB, "blob");
+        registerColumnType(Types.CLOB, "clob");
+
+        registerFunction("concat", new VarArgsSQLFunction(StandardBasicTypes.STRING, "", "||", ""));
+        registerFunction("mod", new SQLFunctionTemplate(StandardBasicTypes.LONG, "?1 % ?2"));
+        registerFunction("substr", new StandardSQLFunction("substr", StandardBasicTypes.STRING));
+        registerFunction("substring", new StandardSQLFunction("substr", StandardBasicTypes.STRING));
+        registerFunction("length", new StandardSQLFunction("length", StandardBasicTypes.INTEGER));
+    }
+
+    @Override
+    public IdentityColumnSupport getIdentityColumnSupport() {
+        return new SQLiteIdentityColumnSupport();
+    }
+
+    @Override
+    public LimitHandler getLimitHandler() {
+        return LIMIT_HANDLER;
+    }
+
+    @Override
+    public UniqueDelegate getUniqueDelegate() {
+        return uniqueDelegate;
+    }
+
+    @Override
+    public boolean hasAlterTable() {
+        return false;
+    }
+
+    @Override
+    public boolean dropConstraints() {
+        return false;
+    }
+
+    @Override
+    public boolean qualifyIndexName() {
+        return false;
+    }
+
+    @Override
+    public String getAddColumnString() {
+        return "add column";
+    }
+
+    @Override
+    public String getForUpdateString() {
+        return "";
+    }
+
+    @Override
+    public boolean supportsOuterJoinForUpdate() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsIfExistsBeforeTableName() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsCascadeDelete() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsCurrentTimestampSelection() {
+        return true;
+    }
+
+    @Override
+    public boolean isCurrentTimestampSelectStringCallable() {
+        return false;
+    }
+
+    @Override
+    public String getCurrentTimestampSelectString() {
+        return "select current_timestamp";
+    }
+
+    /**
+     * The driver reports no SQL state, so constraint violations are recognized by their result code.
+     */
+    @Override
+    public SQLExceptionConversionDelegate buildSQLExceptionConversionDelegate() {
+        return (sqlException, message, sql) -> (sqlException.getErrorCode() & 0xFF) == SQLITE_CONSTRAINT
+                ? new ConstraintViolationException(message, sqlException, sql, null)
+                : null;
+    }
+
+    @Override
+    public int getInExpressionCountLimit() {
+        // SQLITE_MAX_VARIABLE_NUMBER defaults to 999.
+        return 999;
+    }
+
+    private static class SQLiteIdentityColumnSupport extends IdentityColumnSupportImpl {
+
+        @Override
+        public boolean supportsIdentityColumns() {
+            return true;
+        }
+
+        @Override
+        public boolean hasDataTypeInIdentityColumn() {
+            return false;
+        }
+
+        @Override
+        public String getIdentitySelectString(String table, String column, int type) {
+            return "select last_insert_rowid()";
+        }
+
+        /**
+         * Together with the separate {@code primary key (id)} clause this makes the id an alias of the rowid.
+         */
+        @Override
+        public String getIdentityColumnString(int type) {
+            return "integer";
+        }
+    }
+
+    /**
+     * SQLite cannot add constraints to existing tables, so unique constraints are declared inline.
+     */
+    private static class SQLiteUniqueDelegate extends DefaultUniqueDelegate {
+
+        SQLiteUniqueDelegate(Dialect dialect) {
+            super(dialect);
+        }
+
+        @Override
+        public String getColumnDefinitionUniquenessFragment(Column column) {
+            return " unique";
+        }
+
+        @Override
+        public String getAlterTableToAddUniqueKeyCommand(UniqueKey uniqueKey, Metadata metadata) {
+            return "";
+        }
+
+        @Override
+        public String getAlterTableToDropUniqueKeyCommand(UniqueKey uniqueKey, Metadata metadata) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.nordigy.testrestapi.config.sqlite;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.sqlite.SQLiteConfig;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "sqlite")
+public class SQLiteProperties {
+
+    private String path = "data/users.db";
+    /**
+     * Connections serving read-only transactions. Writes always go through a single connection.
+     */
+    private int readPoolSize = 8;
+    /**
+     * NORMAL is durable across application crashes in WAL mode; only a power loss can drop the last commits.
+     */
+    private SQLiteConfig.SynchronousMode synchronous = SQLiteConfig.SynchronousMode.NORMAL;
+    /**
+     * Page cache per connection; negative values are in KiB as with {@code PRAGMA cache_size}.
+     */
+    private int cacheSize = -65536;
+    private DataSize mmapSize = DataSize.ofMegabytes(256);
+    /**
+     * How long a connection waits for the database lock before failing with SQLITE_BUSY.
+     */
+    private Duration busyTimeout = Duration.ofSeconds(5);
+}
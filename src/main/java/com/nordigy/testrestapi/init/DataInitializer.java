@@ -5,6 +5,7 @@ import com.nordigy.testrestapi.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -26,9 +27,62 @@ public class DataInitializer implements CommandLineRunner {
     private static final List<String> firstNames = List.of("John", "Robert", "Nataly", "Mary", "Alex", "Mark");
     private static final List<String> lastNames = List.of("Doe", "Smith", "Portman", "Li", "Erickson", "Roach");
 
+    @Value("${startup.seed-async:false}")
+    private boolean seedAsync;
+    /**
+     * Makes the generated names and birth dates reproducible, e.g. across test applications.
+     */
+    @Value("${startup.seed-random-seed:#{null}}")
+    private Long randomSeed;
+    private volatile boolean initialized;
+    private volatile RuntimeException failure;
+
     @Override
     public void run(String... args) {
-        Random random = new Random();
+        if (!seedAsync) {
+            initialize();
+            return;
+        }
+        Thread thread = new Thread(this::initializeAsync, "data-initializer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Readiness flag: {@code false} until the initial data is available.
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * The failure of asynchronous data initialization, if any; the application then never becomes ready.
+     * Synchronous initialization fails the startup instead.
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    private void initializeAsync() {
+        try {
+            initialize();
+        } catch (RuntimeException ex) {
+            log.error("Data initialization failed", ex);
+            failure = ex;
+        }
+    }
+
+    private void initialize() {
+        seed();
+        initialized = true;
+    }
+
+    private void seed() {
+        if (userRepository.count() > 0) {
+            log.info("Users have been restored, skipping data initialization");
+            return;
+        }
+        Random random = randomSeed != null ? new Random(randomSeed) : new Random();
         int firstNamesSize = firstNames.size();
         int lastNamesSize = lastNames.size();
         IntStream.rangeClosed(1, 20)
@@ -0,0 +1,21 @@
+package com.nordigy.testrestapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserChange {
+
+    private String token;
+    private Type type;
+    private Long id;
+    /**
+     * State of the user after the change, {@code null} for deletions.
+     */
+    private User user;
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,22 @@
+package com.nordigy.testrestapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UserChangeBatch {
+
+    private List<UserChange> changes;
+    /**
+     * Token to pass as {@code since} on the next call.
+     */
+    private String nextToken;
+    /**
+     * Set when the given token is unknown or too old: the client has to re-read /api/users
+     * and continue from {@link #nextToken}.
+     */
+    private boolean resyncRequired;
+}
@@ -0,0 +1,17 @@
+package com.nordigy.testrestapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UserScanPage {
+
+    private List<User> users;
+    /**
+     * The {@code after} id of the next page of the same split, {@code null} once the split is exhausted.
+     */
+    private Long nextAfter;
+}
@@ -0,0 +1,35 @@
+package com.nordigy.testrestapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Balanced id ranges covering all users that existed when the plan was made.
+ * <p>
+ * The bounds and {@link #totalUsers} are read while no write can commit, so they describe exactly the state at
+ * {@link #syncToken}; the split sizes are estimates from a sample read afterwards. The splits can be read in any
+ * order and concurrently, but they are separate reads, not one snapshot: a split read later sees the writes made
+ * in the meantime. A consistent result is obtained by applying the change feed after {@link #syncToken} to the
+ * scanned users, in order: every repository write after the token is in the feed, in commit order, so this
+ * yields exactly the state at the last token applied, whenever each split was read. Users created later are
+ * above {@link #highWatermark} and only come from the feed.
+ * <p>
+ * The feed keeps the last {@code changefeed.capacity} changes and answers an older token with
+ * {@code resyncRequired}, after which the client has to plan and scan again.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserScanPlan {
+
+    private long highWatermark;
+    /**
+     * Change feed token of the state the bounds and the total were read at.
+     */
+    private String syncToken;
+    private long totalUsers;
+    private List<UserSplit> splits;
+}
@@ -0,0 +1,19 @@
+package com.nordigy.testrestapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The users with ids in {@code (afterId, upToId]}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSplit {
+
+    private int index;
+    private long afterId;
+    private long upToId;
+    private long estimatedSize;
+}
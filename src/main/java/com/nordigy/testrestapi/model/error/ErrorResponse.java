@@ -1,6 +1,6 @@
 package com.nordigy.testrestapi.model.error;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
 import org.hibernate.validator.internal.engine.path.PathImpl;
 import org.springframework.http.HttpStatus;
@@ -14,17 +14,20 @@ import java.util.Collection;
 import java.util.List;
 
 @Data
+@JsonSerialize(using = ErrorResponseSerializer.class)
 public class ErrorResponse {
 
     private HttpStatus status;
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy hh:mm:ss")
+    /**
+     * Rendered as {@value ErrorTimestamps#PATTERN}.
+     */
     private LocalDateTime timestamp;
     private String message;
     private String debugMessage;
     private List<ValidationError> subErrors;
 
     private ErrorResponse() {
-        timestamp = LocalDateTime.now();
+        timestamp = ErrorTimestamps.now();
     }
 
     public static Builder builder() {
@@ -35,7 +38,7 @@ public class ErrorResponse {
         private HttpStatus status;
         private String message;
         private String debugMessage;
-        private List<ValidationError> subErrors;
+        private ArrayList<ValidationError> subErrors;
 
         private Builder() {
         }
@@ -57,9 +60,11 @@ public class ErrorResponse {
 
         public Builder subErrors(Collection<?> errors) {
             if (this.subErrors == null) {
-                this.subErrors = new ArrayList<>();
+                this.subErrors = new ArrayList<>(errors.size());
+            } else {
+                this.subErrors.ensureCapacity(this.subErrors.size() + errors.size());
             }
-            errors.forEach(error -> {
+            for (Object error : errors) {
                 ValidationError validationError;
                 if (error instanceof FieldError) {
                     validationError = buildValidationError((FieldError) error);
@@ -71,7 +76,7 @@ public class ErrorResponse {
                     throw new RuntimeException("Wrong error format");
                 }
                 subErrors.add(validationError);
-            });
+            }
             return this;
         }
 
@@ -0,0 +1,82 @@
+package com.nordigy.testrestapi.model.error;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes {@link ErrorResponse}s field by field with pre-encoded field names, producing the same JSON as the
+ * bean serializer: fields in declaration order, nulls included, the status as its enum name.
+ */
+public class ErrorResponseSerializer extends StdSerializer<ErrorResponse> {
+
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializableString MESSAGE = new SerializedString("message");
+    private static final SerializableString DEBUG_MESSAGE = new SerializedString("debugMessage");
+    private static final SerializableString SUB_ERRORS = new SerializedString("subErrors");
+    private static final SerializableString OBJECT = new SerializedString("object");
+    private static final SerializableString FIELD = new SerializedString("field");
+    private static final SerializableString REJECTED_VALUE = new SerializedString("rejectedValue");
+
+    public ErrorResponseSerializer() {
+        super(ErrorResponse.class);
+    }
+
+    @Override
+    public void serialize(ErrorResponse errorResponse, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(errorResponse);
+        generator.writeFieldName(STATUS);
+        if (errorResponse.getStatus() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(errorResponse.getStatus().name());
+        }
+        generator.writeFieldName(TIMESTAMP);
+        if (errorResponse.getTimestamp() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(ErrorTimestamps.format(errorResponse.getTimestamp()));
+        }
+        writeString(generator, MESSAGE, errorResponse.getMessage());
+        writeString(generator, DEBUG_MESSAGE, errorResponse.getDebugMessage());
+        generator.writeFieldName(SUB_ERRORS);
+        List<ValidationError> subErrors = errorResponse.getSubErrors();
+        if (subErrors == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray(subErrors.size());
+            for (ValidationError subError : subErrors) {
+                writeValidationError(subError, generator, provider);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeValidationError(ValidationError error, JsonGenerator generator,
+                                             SerializerProvider provider) throws IOException {
+        generator.writeStartObject(error);
+        writeString(generator, OBJECT, error.getObject());
+        writeString(generator, FIELD, error.getField());
+        generator.writeFieldName(REJECTED_VALUE);
+        // Any type can be rejected, so its serialization stays with Jackson.
+        provider.defaultSerializeValue(error.getRejectedValue(), generator);
+        writeString(generator, MESSAGE, error.getMessage());
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, SerializableString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+}
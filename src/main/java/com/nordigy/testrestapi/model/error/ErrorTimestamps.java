@@ -0,0 +1,54 @@
+package com.nordigy.testrestapi.model.error;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Error timestamps are rendered with a precision of one second, so the current second and its rendering are
+ * computed once and shared by all errors raised during that second.
+ */
+final class ErrorTimestamps {
+
+    static final String PATTERN = "dd-MM-yyyy hh:mm:ss";
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN);
+
+    private static volatile Second current = new Second(Long.MIN_VALUE, null, null);
+
+    private ErrorTimestamps() {
+    }
+
+    static LocalDateTime now() {
+        return second(System.currentTimeMillis() / 1000).time;
+    }
+
+    static String format(LocalDateTime timestamp) {
+        Second second = current;
+        return timestamp == second.time ? second.formatted : FORMATTER.format(timestamp);
+    }
+
+    private static Second second(long epochSecond) {
+        Second second = current;
+        if (second.epochSecond != epochSecond) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+            second = new Second(epochSecond, time, FORMATTER.format(time));
+            current = second;
+        }
+        return second;
+    }
+
+    private static final class Second {
+
+        private final long epochSecond;
+        private final LocalDateTime time;
+        private final String formatted;
+
+        Second(long epochSecond, LocalDateTime time, String formatted) {
+            this.epochSecond = epochSecond;
+            this.time = time;
+            this.formatted = formatted;
+        }
+    }
+}
@@ -1,10 +1,29 @@
 package com.nordigy.testrestapi.repository;
 
 import com.nordigy.testrestapi.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface UserRepository extends PagingAndSortingRepository<User, Long>, QuerydslPredicateExecutor<User> {
-}
\ No newline at end of file
+
+    /**
+     * Keyset page of the id range {@code (fromId, toId]}, used by range scans.
+     */
+    @RestResource(exported = false)
+    List<User> findByIdGreaterThanAndIdLessThanEqual(Long fromId, Long toId, Pageable pageable);
+
+    /**
+     * The ids of the range {@code [fromId, toId]} divisible by {@code stride}, in order, used to plan range scans.
+     */
+    @RestResource(exported = false)
+    @Query("select u.id from User u where u.id between :fromId and :toId and mod(u.id, :stride) = 0 order by u.id")
+    List<Long> findIdSample(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("stride") Long stride);
+}
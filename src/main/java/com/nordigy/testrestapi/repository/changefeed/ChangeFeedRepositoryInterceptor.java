@@ -0,0 +1,144 @@
+package com.nordigy.testrestapi.repository.changefeed;
+
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.model.UserChange;
+import com.nordigy.testrestapi.repository.UserRepository;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Appends every {@code save*}/{@code delete*} call of the user repository to the {@link UserChangeFeed}.
+ * <p>
+ * The feed's write lock is held from before the write until after it has committed and been appended, so
+ * the sequence of the changes is the order in which they were committed. Within a surrounding transaction
+ * the lock is held, and the changes are only appended, until that transaction completes.
+ */
+public class ChangeFeedRepositoryInterceptor implements MethodInterceptor {
+
+    private static final Set<String> WRITE_METHODS = Set.of("save", "saveAll", "delete", "deleteById", "deleteAll");
+
+    private final ObjectProvider<UserChangeFeed> changeFeed;
+
+    public ChangeFeedRepositoryInterceptor(ObjectProvider<UserChangeFeed> changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        if (!WRITE_METHODS.contains(method)) {
+            return invocation.proceed();
+        }
+        UserChangeFeed feed = changeFeed.getObject();
+        UserRepository repository = (UserRepository) ((ProxyMethodInvocation) invocation).getProxy();
+        Object[] arguments = invocation.getArguments();
+        Lock lock = feed.writeLock();
+        lock.lock();
+        boolean deferred = false;
+        try {
+            List<UserChange.Type> types = new ArrayList<>();
+            List<User> deleted = new ArrayList<>();
+            before(repository, method, arguments, types, deleted);
+            Object result = invocation.proceed();
+            List<Change> changes = changes(method, result, types, deleted);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        try {
+                            if (status == STATUS_COMMITTED) {
+                                changes.forEach(change -> feed.append(change.type, change.user));
+                            }
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                });
+                deferred = true;
+            } else {
+                changes.forEach(change -> feed.append(change.type, change.user));
+            }
+            return result;
+        } finally {
+            if (!deferred) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Collects what has to be known before the write: whether saved users are new, and which users
+     * {@code deleteAll()} removes.
+     */
+    private static void before(UserRepository repository, String method, Object[] arguments,
+                               List<UserChange.Type> types, List<User> deleted) {
+        switch (method) {
+            case "save":
+                types.add(type(repository, (User) arguments[0]));
+                break;
+            case "saveAll":
+                ((Iterable<?>) arguments[0]).forEach(user -> types.add(type(repository, (User) user)));
+                break;
+            case "deleteById":
+                deleted.add(User.builder().id((Long) arguments[0]).build());
+                break;
+            case "delete":
+                deleted.add((User) arguments[0]);
+                break;
+            case "deleteAll":
+                if (arguments.length == 0) {
+                    repository.findAll().forEach(deleted::add);
+                } else {
+                    ((Iterable<?>) arguments[0]).forEach(user -> deleted.add((User) user));
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unexpected repository method " + method);
+        }
+    }
+
+    private static UserChange.Type type(UserRepository repository, User user) {
+        return user.getId() == null || !repository.existsById(user.getId())
+                ? UserChange.Type.CREATED
+                : UserChange.Type.UPDATED;
+    }
+
+    private static List<Change> changes(String method, Object result, List<UserChange.Type> types,
+                                        List<User> deleted) {
+        List<Change> changes = new ArrayList<>();
+        switch (method) {
+            case "save":
+                changes.add(new Change(types.get(0), (User) result));
+                break;
+            case "saveAll":
+                int index = 0;
+                for (Object user : (Iterable<?>) result) {
+                    changes.add(new Change(types.get(index++), (User) user));
+                }
+                break;
+            default:
+                deleted.forEach(user -> changes.add(new Change(UserChange.Type.DELETED, user)));
+        }
+        return changes;
+    }
+
+    private static class Change {
+
+        private final UserChange.Type type;
+        private final User user;
+
+        Change(UserChange.Type type, User user) {
+            this.type = type;
+            this.user = user;
+        }
+    }
+}
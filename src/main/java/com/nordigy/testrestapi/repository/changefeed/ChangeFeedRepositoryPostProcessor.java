@@ -0,0 +1,43 @@
+package com.nordigy.testrestapi.repository.changefeed;
+
+import com.nordigy.testrestapi.repository.UserRepository;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+/**
+ * Wraps the {@link UserRepository} bean with a {@link ChangeFeedRepositoryInterceptor}.
+ * Runs between sharding and the journal: the journal wraps the write in its transaction, so the changes are
+ * appended once that transaction has committed.
+ */
+public class ChangeFeedRepositoryPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ChangeFeedRepositoryInterceptor interceptor;
+
+    public ChangeFeedRepositoryPostProcessor(ObjectProvider<UserChangeFeed> changeFeed) {
+        this.interceptor = new ChangeFeedRepositoryInterceptor(changeFeed);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof UserRepository)) {
+            return bean;
+        }
+        // Advises the Spring Data proxy itself, like Spring's own advising post-processors, so that the API docs
+        // still describe the repository rather than another proxy; the sharded repository is not a proxy.
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 15;
+    }
+}
@@ -0,0 +1,236 @@
+package com.nordigy.testrestapi.repository.changefeed;
+
+import com.nordigy.testrestapi.config.ChangeFeedProperties;
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.model.UserChange;
+import com.nordigy.testrestapi.model.UserChangeBatch;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory log of user changes.
+ * <p>
+ * Sync tokens have the form {@code <generation>-<sequence>}: the sequence grows by one with every change
+ * and the generation changes with every restart, so tokens issued before a restart always force a resync.
+ * <p>
+ * Every stream subscriber has its own bounded queue, drained by its own publisher task, so a slow client
+ * never holds up the others: once its queue is full it is sent a resync and dropped.
+ */
+@Component
+public class UserChangeFeed implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeFeed.class);
+
+    private final String generation = Long.toString(System.currentTimeMillis(), 36);
+    private final UserChange[] ring;
+    private final int maxBatchSize;
+    private final int subscriberQueueSize;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService publisher = Executors.newCachedThreadPool(
+            new CustomizableThreadFactory("changefeed-publisher-"));
+    private long head;
+
+    public UserChangeFeed(ChangeFeedProperties properties) {
+        this.ring = new UserChange[properties.getCapacity()];
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.subscriberQueueSize = properties.getSubscriberQueueSize();
+    }
+
+    /**
+     * Held by repository writes from before the write until it has committed and been appended, so that the
+     * sequence of the changes is their commit order.
+     */
+    Lock writeLock() {
+        return writeLock;
+    }
+
+    public void append(UserChange.Type type, User user) {
+        User state = type == UserChange.Type.DELETED ? null : User.builder()
+                .id(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .dayOfBirth(user.getDayOfBirth())
+                .build();
+        synchronized (this) {
+            head++;
+            UserChange change = new UserChange(token(head), type, user.getId(), state);
+            ring[index(head)] = change;
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(change)) {
+                    resync(subscriber);
+                }
+                schedule(subscriber);
+            }
+        }
+    }
+
+    public synchronized String currentToken() {
+        return token(head);
+    }
+
+    /**
+     * Runs {@code read} with the current token while no repository write can commit, so that it reads exactly
+     * the state the token stands for. Writes wait for it, so it should be short.
+     */
+    public <T> T readAtCurrentToken(Function<String, T> read) {
+        writeLock.lock();
+        try {
+            return read.apply(currentToken());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public UserChangeBatch changesSince(String token, int limit) {
+        long sequence = parse(token);
+        synchronized (this) {
+            long oldest = Math.max(0, head - ring.length);
+            if (sequence < oldest || sequence > head) {
+                return new UserChangeBatch(Collections.emptyList(), token(head), true);
+            }
+            int count = (int) Math.min(Math.min(limit, maxBatchSize), head - sequence);
+            List<UserChange> changes = new ArrayList<>(count);
+            for (long next = sequence + 1; next <= sequence + count; next++) {
+                changes.add(ring[index(next)]);
+            }
+            return new UserChangeBatch(changes, token(sequence + count), false);
+        }
+    }
+
+    /**
+     * Streams all changes after {@code token} (or after the current head, if {@code null}) to the emitter.
+     * A token that is no longer retained, or further behind than the subscriber queue holds, is sent a resync.
+     */
+    public void subscribe(SseEmitter emitter, String token) {
+        Subscriber subscriber = new Subscriber(emitter, subscriberQueueSize);
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(ex -> close(subscriber));
+        synchronized (this) {
+            long sequence = token != null ? parse(token) : head;
+            long oldest = Math.max(0, head - ring.length);
+            if (sequence < oldest || sequence > head || head - sequence > subscriberQueueSize) {
+                subscriber.resyncToken = token(head);
+            } else {
+                for (long next = sequence + 1; next <= head; next++) {
+                    subscriber.queue.add(ring[index(next)]);
+                }
+                subscribers.add(subscriber);
+            }
+            schedule(subscriber);
+        }
+    }
+
+    private void resync(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        subscriber.resyncToken = token(head);
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.closed && subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                publisher.execute(() -> publish(subscriber));
+            } catch (RejectedExecutionException ex) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void publish(Subscriber subscriber) {
+        try {
+            UserChange change;
+            while (subscriber.resyncToken == null && !subscriber.closed
+                    && (change = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(change.getToken())
+                        .name("change")
+                        .data(change, MediaType.APPLICATION_JSON));
+            }
+            if (subscriber.resyncToken != null && !subscriber.closed) {
+                close(subscriber);
+                subscriber.emitter.send(SseEmitter.event()
+                        .name("resync")
+                        .data(subscriber.resyncToken));
+                subscriber.emitter.complete();
+            }
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Dropping change feed subscriber", ex);
+            close(subscriber);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (!subscriber.queue.isEmpty() || subscriber.resyncToken != null) {
+            schedule(subscriber);
+        }
+    }
+    private int index(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+
+    private String token(long sequence) {
+        return generation + "-" + sequence;
+    }
+
+    /**
+     * @return the sequence of the token, or {@code -1} if it is malformed or belongs to another generation
+     */
+    private long parse(String token) {
+        if (token == null) {
+            return -1;
+        }
+        int separator = token.lastIndexOf('-');
+        if (separator < 0 || !generation.equals(token.substring(0, separator))) {
+            return -1;
+        }
+        return NumberUtils.toLong(token.substring(separator + 1), -1);
+    }
+
+    @Override
+    public void destroy() {
+        publisher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private static class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<UserChange> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile String resyncToken;
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, int queueSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        }
+    }
+}
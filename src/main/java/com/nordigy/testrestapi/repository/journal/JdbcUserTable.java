@@ -0,0 +1,138 @@
+package com.nordigy.testrestapi.repository.journal;
+
+import com.nordigy.testrestapi.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to the user table, used to restore and snapshot it without going through JPA.
+ */
+class JdbcUserTable {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final String COLUMNS = "id, first_name, last_name, email, day_of_birth";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean sqlite;
+    private final List<User> pendingUpserts = new ArrayList<>(BATCH_SIZE);
+
+    JdbcUserTable(DataSource dataSource) throws MetaDataAccessException {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName");
+        this.sqlite = "SQLite".equalsIgnoreCase(product);
+    }
+
+    /**
+     * Applies a record. Upserts are batched: call {@link #flush()} after the last record.
+     */
+    void apply(UserRecord record) {
+        switch (record.getOp()) {
+            case UserRecord.UPSERT:
+                pendingUpserts.add(record.getUser());
+                if (pendingUpserts.size() == BATCH_SIZE) {
+                    flush();
+                }
+                break;
+            case UserRecord.DELETE:
+                flush();
+                jdbcTemplate.update("DELETE FROM user WHERE id = ?", record.getUser().getId());
+                break;
+            case UserRecord.CLEAR:
+                flush();
+                jdbcTemplate.update("DELETE FROM user");
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal operation " + record.getOp());
+        }
+    }
+
+    void flush() {
+        if (pendingUpserts.isEmpty()) {
+            return;
+        }
+        String sql = sqlite
+                ? "INSERT OR REPLACE INTO user (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?)"
+                : "MERGE INTO user (" + COLUMNS + ") KEY (id) VALUES (?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, pendingUpserts, pendingUpserts.size(), this::bind);
+        pendingUpserts.clear();
+    }
+
+    /**
+     * Makes the identity column continue after the given id and the restored ids. SQLite derives it from the
+     * rows itself.
+     */
+    void restartIdentity(long highestId) {
+        if (sqlite) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM user", Long.class);
+        long nextId = Math.max(highestId, maxId == null ? 0 : maxId) + 1;
+        jdbcTemplate.execute("ALTER TABLE user ALTER COLUMN id RESTART WITH " + nextId);
+    }
+
+    /**
+     * Opens a read-only transaction on a consistent snapshot of the table and pins that snapshot.
+     */
+    Connection openSnapshot() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeQuery("SELECT COUNT(*) FROM user").close();
+            }
+            return connection;
+        } catch (SQLException ex) {
+            connection.close();
+            throw ex;
+        }
+    }
+
+    long readAll(Connection connection, Consumer<User> consumer) throws SQLException {
+        long count = 0;
+        try (Statement statement = connection.createStatement()) {
+            statement.setFetchSize(BATCH_SIZE);
+            try (ResultSet resultSet = statement.executeQuery("SELECT " + COLUMNS + " FROM user ORDER BY id")) {
+                while (resultSet.next()) {
+                    Date dayOfBirth = resultSet.getDate(5);
+                    consumer.accept(User.builder()
+                            .id(resultSet.getLong(1))
+                            .firstName(resultSet.getString(2))
+                            .lastName(resultSet.getString(3))
+                            .email(resultSet.getString(4))
+                            .dayOfBirth(dayOfBirth == null ? null : dayOfBirth.toLocalDate())
+                            .build());
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void bind(PreparedStatement statement, User user) throws SQLException {
+        statement.setLong(1, user.getId());
+        statement.setString(2, user.getFirstName());
+        statement.setString(3, user.getLastName());
+        statement.setString(4, user.getEmail());
+        if (user.getDayOfBirth() == null) {
+            statement.setNull(5, Types.DATE);
+        } else {
+            statement.setDate(5, Date.valueOf(user.getDayOfBirth()));
+        }
+    }
+}
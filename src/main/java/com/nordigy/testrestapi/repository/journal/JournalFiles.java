@@ -0,0 +1,93 @@
+package com.nordigy.testrestapi.repository.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Naming and reading of journal segments ({@code journal-<generation>.log}) and snapshots
+ * ({@code snapshot-<generation>.bin}). A snapshot of generation N holds the state before segment N was opened.
+ */
+final class JournalFiles {
+
+    static final int SEGMENT_MAGIC = 0x554A524E;
+    static final int SNAPSHOT_MAGIC = 0x55534E50;
+    static final int VERSION = 1;
+    static final int FILE_HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private JournalFiles() {
+    }
+
+    static Path segment(Path directory, long generation) {
+        return directory.resolve(SEGMENT_PREFIX + generation + SEGMENT_SUFFIX);
+    }
+
+    static Path snapshot(Path directory, long generation) {
+        return directory.resolve(SNAPSHOT_PREFIX + generation + SNAPSHOT_SUFFIX);
+    }
+
+    static List<Long> segmentGenerations(Path directory) throws IOException {
+        return generations(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    static List<Long> snapshotGenerations(Path directory) throws IOException {
+        return generations(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Memory-maps the file and passes every intact record after the header to the consumer,
+     * stopping at the end of the written data or at the first torn record.
+     */
+    static void readRecords(Path file, int expectedMagic, Consumer<UserRecord> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            long size = channel.size();
+            if (size < FILE_HEADER_SIZE) {
+                return;
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_HEADER_SIZE);
+            if (header.getInt() != expectedMagic || header.getInt() != VERSION) {
+                throw new IOException("Unsupported journal file " + file);
+            }
+            long offset = FILE_HEADER_SIZE;
+            while (offset < size) {
+                long length = Math.min(size - offset, Integer.MAX_VALUE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                UserRecord record;
+                while ((record = UserRecord.read(buffer)) != null) {
+                    consumer.accept(record);
+                }
+                // Continue in a new mapping only if a record crosses the end of this one.
+                if (offset + length >= size || buffer.position() == 0) {
+                    return;
+                }
+                offset += buffer.position();
+            }
+        }
+    }
+
+    private static List<Long> generations(Path directory, String prefix, String suffix) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> name.substring(prefix.length(), name.length() - suffix.length()))
+                    .filter(generation -> !generation.isEmpty() && generation.chars().allMatch(Character::isDigit))
+                    .map(Long::valueOf)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
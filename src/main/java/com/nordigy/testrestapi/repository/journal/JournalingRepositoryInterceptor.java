@@ -0,0 +1,128 @@
+package com.nordigy.testrestapi.repository.journal;
+
+import com.nordigy.testrestapi.model.User;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.orm.jpa.EntityManagerFactoryInfo;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Appends every {@code save*}/{@code delete*} call of the user repository to the journal within the
+ * transaction of the call, after it has been flushed: if the append fails, the write is rolled back.
+ * <p>
+ * A transaction that does not commit after its records were appended leaves them in the journal, which then
+ * refuses all further writes until it is checked and the application restarted.
+ */
+public class JournalingRepositoryInterceptor implements MethodInterceptor {
+
+    private static final Set<String> WRITE_METHODS = Set.of("save", "saveAll", "delete", "deleteById", "deleteAll");
+
+    private final ObjectProvider<UserJournal> journal;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    public JournalingRepositoryInterceptor(ObjectProvider<UserJournal> journal,
+                                           ObjectProvider<PlatformTransactionManager> transactionManager,
+                                           ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.journal = journal;
+        this.transactionManager = transactionManager;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        if (!WRITE_METHODS.contains(method)) {
+            return invocation.proceed();
+        }
+        UserJournal userJournal = journal.getObject();
+        Lock lock = userJournal.mutationLock();
+        lock.lock();
+        try {
+            return new TransactionTemplate(transactionManager.getObject()).execute(status -> {
+                Object result = proceed(invocation);
+                // Constraint violations of updates only show up on flush, they must not reach the journal.
+                flush(entityManagerFactory.getObject());
+                record(userJournal, method, invocation.getArguments(), result);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int completionStatus) {
+                        if (completionStatus != STATUS_COMMITTED) {
+                            userJournal.markUnusable("a transaction did not commit after its " + method
+                                    + " was journaled");
+                        }
+                    }
+                });
+                return result;
+            });
+        } catch (UndeclaredThrowableException ex) {
+            throw ex.getUndeclaredThrowable();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void flush(EntityManagerFactory entityManagerFactory) {
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager == null) {
+            return;
+        }
+        try {
+            entityManager.flush();
+        } catch (RuntimeException ex) {
+            PersistenceExceptionTranslator translator = entityManagerFactory instanceof EntityManagerFactoryInfo
+                    ? ((EntityManagerFactoryInfo) entityManagerFactory).getJpaDialect()
+                    : EntityManagerFactoryUtils::convertJpaAccessExceptionIfPossible;
+            throw DataAccessUtils.translateIfNecessary(ex, translator);
+        }
+    }
+
+    private static Object proceed(MethodInvocation invocation) {
+        try {
+            return invocation.proceed();
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new UndeclaredThrowableException(ex);
+        }
+    }
+
+    private void record(UserJournal userJournal, String method, Object[] arguments, Object result) {
+        switch (method) {
+            case "save":
+                userJournal.append(UserRecord.UPSERT, (User) result);
+                break;
+            case "saveAll":
+                ((Iterable<?>) result).forEach(user -> userJournal.append(UserRecord.UPSERT, (User) user));
+                break;
+            case "deleteById":
+                userJournal.append(UserRecord.DELETE, User.builder().id((Long) arguments[0]).build());
+                break;
+            case "delete":
+                userJournal.append(UserRecord.DELETE, (User) arguments[0]);
+                break;
+            case "deleteAll":
+                if (arguments.length == 0) {
+                    userJournal.append(UserRecord.CLEAR, new User());
+                } else {
+                    ((Iterable<?>) arguments[0]).forEach(user -> userJournal.append(UserRecord.DELETE, (User) user));
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unexpected repository method " + method);
+        }
+    }
+}
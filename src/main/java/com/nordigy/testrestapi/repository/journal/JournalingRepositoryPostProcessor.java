@@ -0,0 +1,39 @@
+package com.nordigy.testrestapi.repository.journal;
+
+import com.nordigy.testrestapi.repository.UserRepository;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Wraps the {@link UserRepository} bean with a {@link JournalingRepositoryInterceptor}.
+ */
+public class JournalingRepositoryPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final JournalingRepositoryInterceptor interceptor;
+
+    public JournalingRepositoryPostProcessor(ObjectProvider<UserJournal> journal,
+                                             ObjectProvider<PlatformTransactionManager> transactionManager,
+                                             ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.interceptor = new JournalingRepositoryInterceptor(journal, transactionManager, entityManagerFactory);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof UserRepository)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 10;
+    }
+}
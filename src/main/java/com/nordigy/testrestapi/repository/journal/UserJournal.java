@@ -0,0 +1,173 @@
+package com.nordigy.testrestapi.repository.journal;
+
+import com.nordigy.testrestapi.config.JournalProperties.FsyncPolicy;
+import com.nordigy.testrestapi.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only journal of user mutations, written through a memory-mapped window that moves forward
+ * as the current segment fills up.
+ */
+public class UserJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(UserJournal.class);
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final int mappingSize;
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private FileChannel channel;
+    private volatile MappedByteBuffer window;
+    private long windowBase;
+    private long generation;
+    private ByteBuffer scratch = ByteBuffer.allocate(512);
+    private boolean closed;
+    private long highestId;
+    private volatile String unusableReason;
+
+    public UserJournal(Path directory, FsyncPolicy fsyncPolicy, int mappingSize) {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.mappingSize = mappingSize;
+    }
+
+    /**
+     * Held by repository mutations from the database write until the journal append, so that a snapshot
+     * (which takes the write side) never sees a database state that is not exactly covered by the journal.
+     */
+    Lock mutationLock() {
+        return snapshotLock.readLock();
+    }
+
+    Lock snapshotLock() {
+        return snapshotLock.writeLock();
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * The highest user id ever journaled, deleted users included, so that restored ids are never reused.
+     */
+    synchronized long getHighestId() {
+        return highestId;
+    }
+
+    synchronized void restoreHighestId(long highestId) {
+        this.highestId = Math.max(this.highestId, highestId);
+    }
+
+    synchronized void open(long generation) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        closeSegment();
+        this.channel = FileChannel.open(JournalFiles.segment(directory, generation),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.generation = generation;
+        this.windowBase = 0;
+        this.window = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappingSize);
+        window.putInt(JournalFiles.SEGMENT_MAGIC);
+        window.putInt(JournalFiles.VERSION);
+        window.putLong(generation);
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            window.force();
+        }
+    }
+
+    /**
+     * Closes the current segment and continues in a new one.
+     *
+     * @return the generation of the new segment
+     */
+    synchronized long rotate() throws IOException {
+        open(generation + 1);
+        return generation;
+    }
+
+    synchronized void append(byte op, User user) {
+        if (unusableReason != null) {
+            throw new IllegalStateException("Journal is unusable: " + unusableReason);
+        }
+        if (channel == null) {
+            throw new IllegalStateException("Journal is not open");
+        }
+        scratch = UserRecord.encode(scratch, op, user);
+        if (window.remaining() < scratch.remaining()) {
+            moveWindow();
+        }
+        window.put(scratch);
+        if (user.getId() != null) {
+            highestId = Math.max(highestId, user.getId());
+        }
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            window.force();
+        }
+    }
+
+    void force() {
+        MappedByteBuffer current = window;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    /**
+     * Refuses all further appends, and thereby all further writes of the user repository: the journal no longer
+     * matches the database.
+     */
+    void markUnusable(String reason) {
+        if (unusableReason == null) {
+            unusableReason = reason;
+            log.error("Journal is unusable, all user writes are refused: {}", reason);
+        }
+    }
+
+    boolean isUsable() {
+        return unusableReason == null;
+    }
+
+    synchronized void close() throws IOException {
+        closed = true;
+        closeSegment();
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        window.force();
+        channel.close();
+        channel = null;
+        window = null;
+    }
+
+    private void moveWindow() {
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            window.force();
+        }
+        windowBase += window.position();
+        try {
+            window = channel.map(FileChannel.MapMode.READ_WRITE, windowBase, Math.max(mappingSize, scratch.remaining()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to extend journal segment " + generation, ex);
+        }
+    }
+}
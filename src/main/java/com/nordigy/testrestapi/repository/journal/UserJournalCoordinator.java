@@ -0,0 +1,245 @@
+package com.nordigy.testrestapi.repository.journal;
+
+import com.nordigy.testrestapi.config.JournalProperties;
+import com.nordigy.testrestapi.config.JournalProperties.FsyncPolicy;
+import com.nordigy.testrestapi.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StopWatch;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * Restores the user table from the newest snapshot and the journal segments written after it before the
+ * application starts serving requests, then keeps taking periodic snapshots so that restarts stay fast.
+ */
+public class UserJournalCoordinator implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UserJournalCoordinator.class);
+
+    private static final int SNAPSHOT_BUFFER_SIZE = 1 << 20;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+    private final UserJournal journal;
+    private final DataSource dataSource;
+    private final JournalProperties properties;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("journal-"));
+
+    public UserJournalCoordinator(UserJournal journal, DataSource dataSource, JournalProperties properties) {
+        this.journal = journal;
+        this.dataSource = dataSource;
+        this.properties = properties;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            recover();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to restore users from the journal", ex);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Failed to restore users from the journal", ex);
+        }
+        long snapshotMillis = properties.getSnapshotInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotMillis, snapshotMillis, TimeUnit.MILLISECONDS);
+        if (properties.getFsync() == FsyncPolicy.INTERVAL) {
+            long fsyncMillis = properties.getFsyncInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(journal::force, fsyncMillis, fsyncMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void recover() throws Exception {
+        Path directory = journal.getDirectory();
+        Files.createDirectories(directory);
+        StopWatch stopWatch = new StopWatch("journal recovery");
+        JdbcUserTable table = new JdbcUserTable(dataSource);
+        long[] highestId = {0};
+        Consumer<UserRecord> replay = record -> {
+            highestId[0] = Math.max(highestId[0], record.getUser().getId());
+            table.apply(record);
+        };
+
+        List<Long> snapshots = JournalFiles.snapshotGenerations(directory);
+        long snapshotGeneration = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        if (snapshotGeneration > 0) {
+            stopWatch.start("snapshot " + snapshotGeneration);
+            JournalFiles.readRecords(JournalFiles.snapshot(directory, snapshotGeneration),
+                    JournalFiles.SNAPSHOT_MAGIC, replay);
+            table.flush();
+            stopWatch.stop();
+        }
+
+        List<Long> segments = JournalFiles.segmentGenerations(directory);
+        long lastGeneration = snapshotGeneration;
+        for (long generation : segments) {
+            lastGeneration = Math.max(lastGeneration, generation);
+            if (generation < snapshotGeneration) {
+                continue;
+            }
+            stopWatch.start("segment " + generation);
+            JournalFiles.readRecords(JournalFiles.segment(directory, generation), JournalFiles.SEGMENT_MAGIC, replay);
+            table.flush();
+            stopWatch.stop();
+        }
+        table.restartIdentity(highestId[0]);
+        journal.restoreHighestId(highestId[0]);
+        journal.open(lastGeneration + 1);
+        log.info("Restored users from {} in {} ms{}", directory.toAbsolutePath(), stopWatch.getTotalTimeMillis(),
+                stopWatch.getTaskCount() > 0 ? System.lineSeparator() + stopWatch.prettyPrint() : "");
+    }
+
+    /**
+     * Writes a snapshot of the current table and removes the journal segments and snapshots it supersedes.
+     * <p>
+     * If the highest id journaled so far belongs to a deleted user, the snapshot ends with a delete of that id,
+     * which keeps the ids of deleted users from being handed out again after a restore.
+     */
+    public void snapshot() throws IOException, SQLException {
+        Path directory = journal.getDirectory();
+        JdbcUserTable table;
+        try {
+            table = new JdbcUserTable(dataSource);
+        } catch (Exception ex) {
+            throw new SQLException("Failed to inspect the database", ex);
+        }
+
+        long generation;
+        long highestId;
+        Connection connection = null;
+        Lock lock = journal.snapshotLock();
+        lock.lock();
+        try {
+            connection = table.openSnapshot();
+            generation = journal.rotate();
+            highestId = journal.getHighestId();
+        } catch (IOException | SQLException ex) {
+            if (connection != null) {
+                connection.close();
+            }
+            throw ex;
+        } finally {
+            lock.unlock();
+        }
+
+        long start = System.nanoTime();
+        Path snapshot = JournalFiles.snapshot(directory, generation);
+        Path temporary = directory.resolve(snapshot.getFileName() + ".tmp");
+        long count;
+        try (Connection snapshotConnection = connection; FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(SNAPSHOT_BUFFER_SIZE);
+            buffer.putInt(JournalFiles.SNAPSHOT_MAGIC);
+            buffer.putInt(JournalFiles.VERSION);
+            buffer.putLong(generation);
+            SnapshotWriter writer = new SnapshotWriter(channel, buffer);
+            long[] lastId = {0};
+            count = table.readAll(snapshotConnection, user -> {
+                writer.write(UserRecord.UPSERT, user);
+                lastId[0] = user.getId();
+            });
+            if (highestId > lastId[0]) {
+                writer.write(UserRecord.DELETE, User.builder().id(highestId).build());
+            }
+            writer.finish();
+            channel.force(true);
+            snapshotConnection.commit();
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (long old : JournalFiles.segmentGenerations(directory)) {
+            if (old < generation) {
+                Files.deleteIfExists(JournalFiles.segment(directory, old));
+            }
+        }
+        for (long old : JournalFiles.snapshotGenerations(directory)) {
+            if (old < generation) {
+                Files.deleteIfExists(JournalFiles.snapshot(directory, old));
+            }
+        }
+        log.info("Wrote snapshot {} with {} users in {} ms", generation, count,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (Exception ex) {
+            log.error("Failed to write a users snapshot", ex);
+        }
+    }
+
+    /**
+     * Lets a running snapshot finish before the journal is closed under it.
+     */
+    @Override
+    public void destroy() throws IOException, InterruptedException {
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Snapshot did not finish within {} s, closing the journal anyway", SHUTDOWN_TIMEOUT_SECONDS);
+            scheduler.shutdownNow();
+        }
+        journal.close();
+    }
+
+    private static class SnapshotWriter {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private ByteBuffer scratch = ByteBuffer.allocate(512);
+
+        SnapshotWriter(FileChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        void write(byte op, User user) {
+            scratch = UserRecord.encode(scratch, op, user);
+            try {
+                if (buffer.remaining() < scratch.remaining()) {
+                    drain();
+                }
+                if (buffer.remaining() < scratch.remaining()) {
+                    while (scratch.hasRemaining()) {
+                        channel.write(scratch);
+                    }
+                } else {
+                    buffer.put(scratch);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        void finish() throws IOException {
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.nordigy.testrestapi.repository.journal;
+
+import com.nordigy.testrestapi.model.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout shared by journal segments and snapshots:
+ * {@code [int payload length][int crc32 of payload][byte op][long id]} followed, for upserts, by the first name,
+ * last name and email as length-prefixed UTF-8 and the day of birth as epoch day.
+ */
+final class UserRecord {
+
+    static final byte UPSERT = 1;
+    static final byte DELETE = 2;
+    static final byte CLEAR = 3;
+
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final int NULL_LENGTH = -1;
+    private static final long NULL_DAY = Long.MIN_VALUE;
+
+    private final byte op;
+    private final User user;
+
+    private UserRecord(byte op, User user) {
+        this.op = op;
+        this.user = user;
+    }
+
+    byte getOp() {
+        return op;
+    }
+
+    User getUser() {
+        return user;
+    }
+
+    /**
+     * Encodes a complete record, header included, ready to be copied into a journal or snapshot.
+     *
+     * @param scratch reusable buffer; a larger one is allocated and returned if the record does not fit
+     * @return the buffer holding the record between its position and limit
+     */
+    static ByteBuffer encode(ByteBuffer scratch, byte op, User user) {
+        byte[] firstName = null;
+        byte[] lastName = null;
+        byte[] email = null;
+        int payloadSize = Byte.BYTES + Long.BYTES;
+        if (op == UPSERT) {
+            firstName = bytes(user.getFirstName());
+            lastName = bytes(user.getLastName());
+            email = bytes(user.getEmail());
+            payloadSize += stringSize(firstName) + stringSize(lastName) + stringSize(email) + Long.BYTES;
+        }
+        ByteBuffer buffer = scratch.capacity() >= HEADER_SIZE + payloadSize
+                ? scratch
+                : ByteBuffer.allocate(Math.max(HEADER_SIZE + payloadSize, scratch.capacity() * 2));
+        buffer.clear();
+        buffer.position(HEADER_SIZE);
+        buffer.put(op);
+        buffer.putLong(user.getId() == null ? 0 : user.getId());
+        if (op == UPSERT) {
+            putString(buffer, firstName);
+            putString(buffer, lastName);
+            putString(buffer, email);
+            buffer.putLong(user.getDayOfBirth() == null ? NULL_DAY : user.getDayOfBirth().toEpochDay());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, payloadSize);
+        buffer.putInt(0, payloadSize);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Reads the next record, or returns {@code null} at the end of the written data or at a torn record.
+     */
+    static UserRecord read(ByteBuffer source) {
+        if (source.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int start = source.position();
+        int length = source.getInt();
+        int expectedCrc = source.getInt();
+        if (length <= 0 || length > source.remaining()) {
+            source.position(start);
+            return null;
+        }
+        ByteBuffer payload = source.slice();
+        payload.limit(length);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            source.position(start);
+            return null;
+        }
+        source.position(source.position() + length);
+
+        byte op = payload.get();
+        User user = new User();
+        user.setId(payload.getLong());
+        if (op == UPSERT) {
+            user.setFirstName(getString(payload));
+            user.setLastName(getString(payload));
+            user.setEmail(getString(payload));
+            long day = payload.getLong();
+            user.setDayOfBirth(day == NULL_DAY ? null : LocalDate.ofEpochDay(day));
+        }
+        return new UserRecord(op, user);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] value) {
+        return Integer.BYTES + (value == null ? 0 : value.length);
+    }
+}
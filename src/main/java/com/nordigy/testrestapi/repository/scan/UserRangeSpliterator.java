@@ -0,0 +1,124 @@
+package com.nordigy.testrestapi.repository.scan;
+
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.model.UserScanPlan;
+import com.nordigy.testrestapi.model.UserSplit;
+import com.nordigy.testrestapi.repository.UserRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Reads the users of an id range page by page, in id order.
+ * <p>
+ * Splits first along the boundaries of the {@link UserScanPlan} it was created for, which balance the number of
+ * users, then by halving the id range while it is wider than two pages.
+ */
+public class UserRangeSpliterator implements Spliterator<User> {
+
+    private final UserRepository userRepository;
+    private final int pageSize;
+    private final double usersPerId;
+    /**
+     * Range boundaries: the users in {@code (boundaries[0], boundaries[length - 1]]} are left to read.
+     */
+    private long[] boundaries;
+    private Iterator<User> page;
+
+    private UserRangeSpliterator(UserRepository userRepository, int pageSize, double usersPerId, long[] boundaries) {
+        this.userRepository = userRepository;
+        this.pageSize = pageSize;
+        this.usersPerId = usersPerId;
+        this.boundaries = boundaries;
+    }
+
+    public static UserRangeSpliterator forPlan(UserRepository userRepository, UserScanPlan plan, int pageSize) {
+        List<UserSplit> splits = plan.getSplits();
+        long[] boundaries = new long[splits.size() + 1];
+        boundaries[0] = splits.get(0).getAfterId();
+        for (int i = 0; i < splits.size(); i++) {
+            boundaries[i + 1] = splits.get(i).getUpToId();
+        }
+        long width = boundaries[splits.size()] - boundaries[0];
+        double usersPerId = width > 0 ? (double) plan.getTotalUsers() / width : 0;
+        return new UserRangeSpliterator(userRepository, pageSize, usersPerId, boundaries);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super User> action) {
+        if (page == null || !page.hasNext()) {
+            page = nextPage();
+            if (page == null) {
+                return false;
+            }
+        }
+        action.accept(page.next());
+        return true;
+    }
+
+    private Iterator<User> nextPage() {
+        long afterId = boundaries[0];
+        long upToId = boundaries[boundaries.length - 1];
+        if (afterId >= upToId) {
+            return null;
+        }
+        Pageable pageable = PageRequest.of(0, pageSize, Sort.by("id"));
+        List<User> users = userRepository.findByIdGreaterThanAndIdLessThanEqual(afterId, upToId, pageable);
+        if (users.isEmpty()) {
+            boundaries = new long[]{upToId, upToId};
+            return null;
+        }
+        // Pages are keyed by the last id read, so the boundaries only keep the part that has not been read.
+        long lastId = users.get(users.size() - 1).getId();
+        boundaries = remainingAfter(users.size() < pageSize ? upToId : lastId);
+        return users.iterator();
+    }
+
+    private long[] remainingAfter(long readUpToId) {
+        int first = 1;
+        while (first < boundaries.length - 1 && boundaries[first] <= readUpToId) {
+            first++;
+        }
+        long[] remaining = Arrays.copyOfRange(boundaries, first - 1, boundaries.length);
+        remaining[0] = readUpToId;
+        return remaining;
+    }
+
+    @Override
+    public Spliterator<User> trySplit() {
+        if (page != null && page.hasNext()) {
+            return null;
+        }
+        long afterId = boundaries[0];
+        long upToId = boundaries[boundaries.length - 1];
+        if (boundaries.length > 2) {
+            int middle = boundaries.length / 2;
+            long[] prefix = Arrays.copyOfRange(boundaries, 0, middle + 1);
+            boundaries = Arrays.copyOfRange(boundaries, middle, boundaries.length);
+            return new UserRangeSpliterator(userRepository, pageSize, usersPerId, prefix);
+        }
+        if ((upToId - afterId) * usersPerId < 2.0 * pageSize) {
+            return null;
+        }
+        long middle = afterId + (upToId - afterId) / 2;
+        boundaries = new long[]{middle, upToId};
+        return new UserRangeSpliterator(userRepository, pageSize, usersPerId, new long[]{afterId, middle});
+    }
+
+    @Override
+    public long estimateSize() {
+        long remaining = (long) ((boundaries[boundaries.length - 1] - boundaries[0]) * usersPerId);
+        return Math.max(0, remaining);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL;
+    }
+}
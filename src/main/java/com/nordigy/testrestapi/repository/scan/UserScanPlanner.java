@@ -0,0 +1,111 @@
+package com.nordigy.testrestapi.repository.scan;
+
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.model.UserScanPlan;
+import com.nordigy.testrestapi.model.UserScanPage;
+import com.nordigy.testrestapi.model.UserSplit;
+import com.nordigy.testrestapi.repository.UserRepository;
+import com.nordigy.testrestapi.repository.changefeed.UserChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Divides the user id space into ranges holding about the same number of users, so that they can be scanned
+ * in parallel.
+ * <p>
+ * The range boundaries are quantiles of a systematic sample of the ids: every id divisible by
+ * {@code count / SAMPLE_SIZE}, which follows gaps left by deleted users. When gaps hide most of the multiples,
+ * the id range is divided evenly instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserScanPlanner {
+
+    private static final int SAMPLE_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final UserChangeFeed changeFeed;
+
+    public UserScanPlan plan(int partitions) {
+        // The bounds and the total are read while no write can commit, so they are exactly those at the sync token.
+        UserScanPlan plan = changeFeed.readAtCurrentToken(syncToken -> {
+            Page<User> first = userRepository.findAll(PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "id")));
+            Page<User> last = userRepository.findAll(PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "id")));
+            if (first.isEmpty() || last.isEmpty()) {
+                return new UserScanPlan(0, syncToken, 0, List.of(new UserSplit(0, 0, 0, 0)));
+            }
+            long total = first.getTotalElements();
+            long minId = first.getContent().get(0).getId();
+            long maxId = last.getContent().get(0).getId();
+            return new UserScanPlan(maxId, syncToken, total, List.of(new UserSplit(0, minId - 1, maxId, total)));
+        });
+        if (plan.getTotalUsers() > 0) {
+            UserSplit all = plan.getSplits().get(0);
+            plan.setSplits(split(all.getAfterId(), all.getUpToId(), plan.getTotalUsers(), partitions));
+        }
+        return plan;
+    }
+
+    public UserScanPage scan(long afterId, long upToId, int size) {
+        List<User> users = userRepository.findByIdGreaterThanAndIdLessThanEqual(afterId, upToId,
+                PageRequest.of(0, size, Sort.by("id")));
+        Long nextAfter = users.size() < size ? null : users.get(users.size() - 1).getId();
+        return new UserScanPage(users, nextAfter);
+    }
+
+    /**
+     * Parallel stream over all users of the plan, read through the fork/join pool.
+     */
+    public Stream<User> stream(UserScanPlan plan, int pageSize) {
+        return StreamSupport.stream(UserRangeSpliterator.forPlan(userRepository, plan, pageSize), true);
+    }
+
+    private List<UserSplit> split(long afterId, long maxId, long total, int partitions) {
+        long stride = Math.max(1, total / SAMPLE_SIZE);
+        List<Long> sample = userRepository.findIdSample(afterId + 1, maxId, stride);
+        if (sample.size() < total / stride / 2) {
+            return evenSplits(afterId, maxId, total, partitions);
+        }
+        List<UserSplit> splits = new ArrayList<>(partitions);
+        int sampled = 0;
+        for (int i = 1; i <= partitions && afterId < maxId; i++) {
+            int end = (int) ((long) i * sample.size() / partitions);
+            long upToId = i == partitions || end >= sample.size() ? maxId : sample.get(end) - 1;
+            if (upToId <= afterId) {
+                continue;
+            }
+            long estimatedSize = (end - sampled) * total / sample.size();
+            splits.add(new UserSplit(splits.size(), afterId, upToId, estimatedSize));
+            afterId = upToId;
+            sampled = end;
+        }
+        return splits;
+    }
+
+    /**
+     * Ranges of the same width, for ids the sample says little about, e.g. when every other user was deleted
+     * and the stride is even.
+     */
+    private static List<UserSplit> evenSplits(long afterId, long maxId, long total, int partitions) {
+        List<UserSplit> splits = new ArrayList<>(partitions);
+        long start = afterId;
+        double width = maxId - start;
+        for (int i = 1; i <= partitions && afterId < maxId; i++) {
+            long upToId = i == partitions ? maxId : start + (long) (width * i / partitions);
+            if (upToId <= afterId) {
+                continue;
+            }
+            splits.add(new UserSplit(splits.size(), afterId, upToId, (long) (total * (upToId - afterId) / width)));
+            afterId = upToId;
+        }
+        return splits;
+    }
+}
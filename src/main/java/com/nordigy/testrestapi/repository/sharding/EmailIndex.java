@@ -0,0 +1,71 @@
+package com.nordigy.testrestapi.repository.sharding;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Global unique index on emails: every shard only enforces uniqueness of its own rows.
+ * <p>
+ * An email is reserved for a user id before the row is written and released once no row holds it anymore.
+ */
+class EmailIndex {
+
+    private static final String UNIQUE_VIOLATION_STATE = "23505";
+    private static final String CONSTRAINT_NAME = "USER_EMAIL_UNIQUE";
+
+    private final ConcurrentMap<String, Long> owners = new ConcurrentHashMap<>();
+
+    /**
+     * Fails like the database would if another user already has the email.
+     */
+    void reserve(String email, long id) {
+        if (email == null) {
+            return;
+        }
+        Long owner = owners.putIfAbsent(email, id);
+        if (owner != null && owner != id) {
+            throw new DuplicateEmailException(
+                    "Unique index or primary key violation: " + CONSTRAINT_NAME + " ON USER(EMAIL) VALUES ('" + email + "')");
+        }
+    }
+
+    void release(String email, long id) {
+        if (email != null) {
+            owners.remove(email, id);
+        }
+    }
+
+    void clear() {
+        owners.clear();
+    }
+
+    /**
+     * A client error that is expected at high rates, so neither it nor its causes capture a stack trace.
+     */
+    private static class DuplicateEmailException extends DataIntegrityViolationException {
+
+        DuplicateEmailException(String message) {
+            super(message, new ConstraintViolationException(message,
+                    new SQLIntegrityConstraintViolationException(message, UNIQUE_VIOLATION_STATE) {
+                        @Override
+                        public synchronized Throwable fillInStackTrace() {
+                            return this;
+                        }
+                    }, CONSTRAINT_NAME) {
+                @Override
+                public synchronized Throwable fillInStackTrace() {
+                    return this;
+                }
+            });
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.nordigy.testrestapi.repository.sharding;
+
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.repository.UserRepository;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.querydsl.QSort;
+import org.springframework.util.Assert;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * {@link UserRepository} over several {@link UserShard}s, partitioned by a hash of the user id.
+ * <p>
+ * Ids come from one global counter, so a new user is routed to its shard before it is inserted, and emails
+ * are kept unique across shards by an {@link EmailIndex}. Lookups by id go to a single shard; every other
+ * query runs on all shards concurrently and the sorted per-shard results are merged, so a page with offset
+ * {@code n} reads up to {@code n + size} rows from each shard.
+ * <p>
+ * Each write is atomic within its shard only: {@code saveAll} and {@code deleteAll} are not atomic as a whole.
+ */
+public class ShardedUserRepository implements UserRepository {
+
+    private final UserShards shards;
+    private final Validator validator;
+    private final EmailIndex emails = new EmailIndex();
+    private final AtomicLong lastId = new AtomicLong();
+
+    public ShardedUserRepository(UserShards shards, Validator validator) {
+        this.shards = shards;
+        this.validator = validator;
+    }
+
+    @Override
+    public <S extends User> S save(S user) {
+        Assert.notNull(user, "Entity must not be null.");
+        if (user.getId() != null) {
+            S updated = update(shards.shardFor(user.getId()), user);
+            if (updated != null) {
+                return updated;
+            }
+            // Like a JPA merge of a user whose row is gone: the user is inserted with a new id.
+        }
+        return insert(user);
+    }
+
+    private <S extends User> S insert(S user) {
+        Set<ConstraintViolation<S>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        long id = lastId.incrementAndGet();
+        emails.reserve(user.getEmail(), id);
+        user.setId(id);
+        try {
+            shards.shardFor(id).insert(user);
+            return user;
+        } catch (RuntimeException ex) {
+            user.setId(null);
+            emails.release(user.getEmail(), id);
+            throw ex;
+        }
+    }
+
+    private <S extends User> S update(UserShard shard, S user) {
+        long id = user.getId();
+        String email = user.getEmail();
+        String[] previousEmail = new String[1];
+        S updated;
+        try {
+            updated = shard.write(repository -> {
+                User current = shard.findForUpdate(id);
+                if (current == null) {
+                    return null;
+                }
+                previousEmail[0] = current.getEmail();
+                if (!Objects.equals(previousEmail[0], email)) {
+                    emails.reserve(email, id);
+                }
+                return repository.save(user);
+            });
+        } catch (RuntimeException ex) {
+            if (previousEmail[0] != null && !Objects.equals(previousEmail[0], email)) {
+                emails.release(email, id);
+            }
+            throw ex;
+        }
+        if (updated != null && !Objects.equals(previousEmail[0], email)) {
+            emails.release(previousEmail[0], id);
+        }
+        return updated;
+    }
+
+    @Override
+    public <S extends User> Iterable<S> saveAll(Iterable<S> users) {
+        Assert.notNull(users, "Entities must not be null!");
+        List<S> saved = new ArrayList<>();
+        for (S user : users) {
+            saved.add(save(user));
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        Assert.notNull(id, "The given id must not be null!");
+        return shards.shardFor(id).read(repository -> repository.findById(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        Assert.notNull(id, "The given id must not be null!");
+        return shards.shardFor(id).read(repository -> repository.existsById(id));
+    }
+
+    @Override
+    public Iterable<User> findAll() {
+        return merge(shards.scatter(shard -> shard.read(repository -> repository.findAll(Sort.by("id")))), Sort.unsorted());
+    }
+
+    @Override
+    public Iterable<User> findAllById(Iterable<Long> ids) {
+        Assert.notNull(ids, "Ids must not be null!");
+        Map<Integer, List<Long>> idsByShard = new HashMap<>();
+        for (Long id : ids) {
+            idsByShard.computeIfAbsent(shards.shardFor(id).getIndex(), index -> new ArrayList<>()).add(id);
+        }
+        List<Iterable<User>> results = shards.scatter(shard -> {
+            List<Long> shardIds = idsByShard.get(shard.getIndex());
+            return shardIds == null ? Collections.<User>emptyList() : shard.read(repository -> repository.findAllById(shardIds));
+        });
+        List<User> users = new ArrayList<>();
+        results.forEach(result -> result.forEach(users::add));
+        return users;
+    }
+
+    @Override
+    public long count() {
+        return sum(shards.scatter(shard -> shard.read(repository -> repository.count())));
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        Assert.notNull(id, "The given id must not be null!");
+        String email = shards.shardFor(id).write(repository -> {
+            User user = repository.findById(id).orElseThrow(() -> new EmptyResultDataAccessException(
+                    String.format("No %s entity with id %s exists!", User.class, id), 1));
+            repository.delete(user);
+            return user.getEmail();
+        });
+        emails.release(email, id);
+    }
+
+    @Override
+    public void delete(User user) {
+        Assert.notNull(user, "Entity must not be null!");
+        Long id = user.getId();
+        if (id == null) {
+            return;
+        }
+        Optional<String> email = shards.shardFor(id).write(repository -> {
+            Optional<User> current = repository.findById(id);
+            current.ifPresent(repository::delete);
+            return current.map(User::getEmail);
+        });
+        email.ifPresent(deleted -> emails.release(deleted, id));
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends User> users) {
+        Assert.notNull(users, "Entities must not be null!");
+        users.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        shards.scatter(shard -> shard.write(repository -> {
+            repository.deleteAll();
+            return null;
+        }));
+        emails.clear();
+    }
+
+    @Override
+    public Iterable<User> findAll(Sort sort) {
+        Sort shardSort = SortedMerge.withIdTieBreak(sort);
+        return merge(shards.scatter(shard -> shard.read(repository -> repository.findAll(shardSort))), sort);
+    }
+
+    @Override
+    public Page<User> findAll(Pageable pageable) {
+        return page(pageable, (repository, shardPageable) -> repository.findAll(shardPageable));
+    }
+
+    @Override
+    public Optional<User> findOne(Predicate predicate) {
+        List<User> found = shards.scatter(shard -> shard.read(repository -> repository.findOne(predicate)))
+                .stream()
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+        if (found.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, found.size());
+        }
+        return found.stream().findFirst();
+    }
+
+    @Override
+    public Iterable<User> findAll(Predicate predicate) {
+        return findAll(predicate, Sort.unsorted());
+    }
+
+    @Override
+    public Iterable<User> findAll(Predicate predicate, Sort sort) {
+        Sort shardSort = SortedMerge.withIdTieBreak(sort);
+        return merge(shards.scatter(shard -> shard.read(repository -> repository.findAll(predicate, shardSort))), sort);
+    }
+
+    @Override
+    public Iterable<User> findAll(Predicate predicate, OrderSpecifier<?>... orders) {
+        return findAll(predicate, Sort.by(new QSort(orders).toList()));
+    }
+
+    @Override
+    public Iterable<User> findAll(OrderSpecifier<?>... orders) {
+        return findAll(Sort.by(new QSort(orders).toList()));
+    }
+
+    @Override
+    public Page<User> findAll(Predicate predicate, Pageable pageable) {
+        return page(pageable, (repository, shardPageable) -> repository.findAll(predicate, shardPageable));
+    }
+
+    @Override
+    public long count(Predicate predicate) {
+        return sum(shards.scatter(shard -> shard.read(repository -> repository.count(predicate))));
+    }
+
+    @Override
+    public boolean exists(Predicate predicate) {
+        return shards.scatter(shard -> shard.read(repository -> repository.exists(predicate))).contains(true);
+    }
+
+    @Override
+    public List<User> findByIdGreaterThanAndIdLessThanEqual(Long fromId, Long toId, Pageable pageable) {
+        Pageable shardPageable = pageable.isPaged()
+                ? PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize()),
+                        SortedMerge.withIdTieBreak(pageable.getSort()))
+                : pageable;
+        List<List<User>> results = shards.scatter(shard -> shard.read(repository ->
+                repository.findByIdGreaterThanAndIdLessThanEqual(fromId, toId, shardPageable)));
+        return pageable.isPaged()
+                ? SortedMerge.merge(results, SortedMerge.comparator(pageable.getSort()), pageable.getOffset(), pageable.getPageSize())
+                : merge(results, Sort.unsorted());
+    }
+
+    @Override
+    public List<Long> findIdSample(Long fromId, Long toId, Long stride) {
+        return shards.scatter(shard -> shard.read(repository -> repository.findIdSample(fromId, toId, stride)))
+                .stream()
+                .flatMap(List::stream)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Every shard returns the first {@code offset + size} users in the requested order; the requested page is
+     * cut from their merge, and the total is the sum of the shard totals.
+     */
+    private Page<User> page(Pageable pageable, BiFunction<UserRepository, Pageable, Page<User>> query) {
+        Assert.notNull(pageable, "Pageable must not be null!");
+        if (pageable.isUnpaged()) {
+            List<Page<User>> pages = shards.scatter(shard -> shard.read(repository -> query.apply(repository, pageable)));
+            return new PageImpl<>(merge(content(pages), Sort.unsorted()));
+        }
+        int window = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        Pageable shardPageable = PageRequest.of(0, window, SortedMerge.withIdTieBreak(pageable.getSort()));
+        List<Page<User>> pages = shards.scatter(shard -> shard.read(repository -> query.apply(repository, shardPageable)));
+        List<User> content = SortedMerge.merge(content(pages), SortedMerge.comparator(pageable.getSort()),
+                pageable.getOffset(), pageable.getPageSize());
+        long total = sum(pages.stream().map(Page::getTotalElements).collect(Collectors.toList()));
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static List<List<User>> content(List<Page<User>> pages) {
+        return pages.stream().map(Page::getContent).collect(Collectors.toList());
+    }
+
+    private static List<User> merge(List<? extends Iterable<User>> results, Sort sort) {
+        List<List<User>> sources = results.stream().map(ShardedUserRepository::toList).collect(Collectors.toList());
+        return SortedMerge.merge(sources, SortedMerge.comparator(sort), 0, Integer.MAX_VALUE);
+    }
+
+    private static List<User> toList(Iterable<User> users) {
+        if (users instanceof List) {
+            return (List<User>) users;
+        }
+        List<User> list = new ArrayList<>();
+        users.forEach(list::add);
+        return list;
+    }
+
+    private static long sum(List<Long> counts) {
+        return counts.stream().mapToLong(Long::longValue).sum();
+    }
+}
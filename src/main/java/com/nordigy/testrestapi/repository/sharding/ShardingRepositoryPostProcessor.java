@@ -0,0 +1,39 @@
+package com.nordigy.testrestapi.repository.sharding;
+
+import com.nordigy.testrestapi.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+/**
+ * Replaces the JPA {@link UserRepository} bean with a {@link ShardedUserRepository}.
+ * Runs first, so the other repository decorators wrap the sharded repository.
+ */
+public class ShardingRepositoryPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<UserShards> shards;
+    /**
+     * Validates new users like Hibernate does on persist, which the sharded inserts bypass.
+     */
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    public ShardingRepositoryPostProcessor(ObjectProvider<UserShards> shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof UserRepository)) {
+            return bean;
+        }
+        return new ShardedUserRepository(shards.getObject(), validator);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 20;
+    }
+}
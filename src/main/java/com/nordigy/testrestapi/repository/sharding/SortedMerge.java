@@ -0,0 +1,125 @@
+package com.nordigy.testrestapi.repository.sharding;
+
+import com.nordigy.testrestapi.model.User;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.util.ClassTypeInformation;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * K-way merge of per-shard query results that are each sorted the same way.
+ */
+final class SortedMerge {
+
+    private static final Sort BY_ID = Sort.by("id");
+
+    private SortedMerge() {
+    }
+
+    /**
+     * The sort every shard has to apply: ties are broken by id, so that the merged order and therefore the
+     * pages are stable.
+     */
+    static Sort withIdTieBreak(Sort sort) {
+        return sort.getOrderFor("id") == null ? sort.and(BY_ID) : sort;
+    }
+
+    /**
+     * Compares users the way the database orders them for {@link #withIdTieBreak(Sort)}.
+     */
+    static Comparator<User> comparator(Sort sort) {
+        Comparator<User> comparator = null;
+        for (Sort.Order order : withIdTieBreak(sort)) {
+            Comparator<User> next = Comparator.comparing(property(order.getProperty()), values(order));
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    /**
+     * Merges sorted lists, skipping the first {@code offset} elements and returning at most {@code limit}.
+     */
+    static <T> List<T> merge(List<? extends List<T>> sources, Comparator<? super T> comparator, long offset, int limit) {
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (left, right) -> comparator.compare(left.head(), right.head()));
+        long total = 0;
+        for (List<T> source : sources) {
+            if (!source.isEmpty()) {
+                heads.add(new Cursor<>(source));
+                total += source.size();
+            }
+        }
+        List<T> merged = new ArrayList<>((int) Math.max(0, Math.min(limit, total - offset)));
+        long skipped = 0;
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Cursor<T> cursor = heads.poll();
+            T next = cursor.head();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged.add(next);
+            }
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static Function<User, Object> property(String name) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(User.class, name);
+        if (descriptor == null || descriptor.getReadMethod() == null) {
+            throw new PropertyReferenceException(name, ClassTypeInformation.from(User.class), Collections.emptyList());
+        }
+        Method getter = descriptor.getReadMethod();
+        return user -> ReflectionUtils.invokeMethod(getter, user);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Object> values(Sort.Order order) {
+        Comparator<Object> values = order.isIgnoreCase()
+                ? Comparator.comparing(value -> value.toString().toLowerCase(Locale.ROOT))
+                : (left, right) -> ((Comparable) left).compareTo(right);
+        if (order.isDescending()) {
+            values = values.reversed();
+        }
+        switch (order.getNullHandling()) {
+            case NULLS_FIRST:
+                return Comparator.nullsFirst(values);
+            case NULLS_LAST:
+                return Comparator.nullsLast(values);
+            default:
+                // H2 sorts nulls as the lowest values.
+                return order.isAscending() ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+        }
+    }
+
+    private static final class Cursor<T> {
+
+        private final List<T> source;
+        private int position;
+
+        Cursor(List<T> source) {
+            this.source = source;
+        }
+
+        T head() {
+            return source.get(position);
+        }
+
+        boolean advance() {
+            return ++position < source.size();
+        }
+    }
+}
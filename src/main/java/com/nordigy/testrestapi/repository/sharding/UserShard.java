@@ -0,0 +1,102 @@
+package com.nordigy.testrestapi.repository.sharding;
+
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.LockModeType;
+import java.sql.Date;
+import java.util.function.Function;
+
+/**
+ * One database of the sharded user table, with its own entity manager factory and a plain
+ * {@link UserRepository} on top of it.
+ * <p>
+ * The repository is created outside of the application context, so it has neither transactional nor exception
+ * translation proxies: {@link #read} and {@link #write} provide both.
+ */
+public class UserShard implements AutoCloseable {
+
+    private static final String INSERT =
+            "insert into user (id, first_name, last_name, email, day_of_birth) values (?1, ?2, ?3, ?4, ?5)";
+
+    private final int index;
+    private final HikariDataSource dataSource;
+    private final LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private final EntityManager entityManager;
+    private final UserRepository repository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final HibernateJpaDialect dialect = new HibernateJpaDialect();
+
+    public UserShard(int index, HikariDataSource dataSource, LocalContainerEntityManagerFactoryBean entityManagerFactoryBean) {
+        this.index = index;
+        this.dataSource = dataSource;
+        this.entityManagerFactoryBean = entityManagerFactoryBean;
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        this.repository = new JpaRepositoryFactory(entityManager).getRepository(UserRepository.class);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public <T> T read(Function<UserRepository, T> query) {
+        return execute(readTransaction, query);
+    }
+
+    public <T> T write(Function<UserRepository, T> update) {
+        return execute(writeTransaction, update);
+    }
+
+    /**
+     * Loads the user and locks its row until the surrounding {@link #write} transaction ends.
+     */
+    public User findForUpdate(Long id) {
+        return entityManager.find(User.class, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * Inserts a validated user with an id assigned by the caller, which JPA would replace with the identity
+     * generated by this shard.
+     */
+    public void insert(User user) {
+        write(repository -> entityManager.createNativeQuery(INSERT)
+                .setParameter(1, user.getId())
+                .setParameter(2, user.getFirstName())
+                .setParameter(3, user.getLastName())
+                .setParameter(4, user.getEmail())
+                .setParameter(5, Date.valueOf(user.getDayOfBirth()))
+                .executeUpdate());
+    }
+
+    private <T> T execute(TransactionTemplate transaction, Function<UserRepository, T> callback) {
+        try {
+            return transaction.execute(status -> callback.apply(repository));
+        } catch (RuntimeException ex) {
+            DataAccessException translated = dialect.translateExceptionIfPossible(ex);
+            throw translated != null ? translated : ex;
+        }
+    }
+
+    @Override
+    public void close() {
+        entityManagerFactoryBean.destroy();
+        dataSource.close();
+    }
+}
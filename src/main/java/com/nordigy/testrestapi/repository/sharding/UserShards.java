@@ -0,0 +1,94 @@
+package com.nordigy.testrestapi.repository.sharding;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * The shards of the user table: routes ids to shards and fans queries out to all of them.
+ */
+public class UserShards implements AutoCloseable {
+
+    private final List<UserShard> shards;
+    private final ExecutorService executor;
+
+    public UserShards(List<UserShard> shards) {
+        Assert.notEmpty(shards, "At least one shard is required");
+        this.shards = List.copyOf(shards);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-shard-");
+        threadFactory.setDaemon(true);
+        // The calling thread queries one of the shards itself.
+        this.executor = shards.size() > 1 ? Executors.newFixedThreadPool(shards.size() - 1, threadFactory) : null;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public List<UserShard> getShards() {
+        return shards;
+    }
+
+    public UserShard shardFor(long id) {
+        return shards.get(Math.floorMod(mix(id), shards.size()));
+    }
+
+    /**
+     * Runs the query on every shard concurrently and returns the results in shard order.
+     */
+    public <T> List<T> scatter(Function<UserShard, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size() - 1);
+        for (int i = 1; i < shards.size(); i++) {
+            UserShard shard = shards.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor));
+        }
+        List<T> results = new ArrayList<>(shards.size());
+        results.add(query.apply(shards.get(0)));
+        for (CompletableFuture<T> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Finalizer of MurmurHash3: spreads sequential ids evenly over any number of shards.
+     */
+    private static long mix(long id) {
+        long hash = id;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        shards.forEach(UserShard::close);
+    }
+}
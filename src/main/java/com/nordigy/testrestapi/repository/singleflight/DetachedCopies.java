@@ -0,0 +1,47 @@
+package com.nordigy.testrestapi.repository.singleflight;
+
+import com.nordigy.testrestapi.model.User;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Copies repository results, so that readers sharing a flight never share entity instances: those are
+ * managed by the persistence context of the thread that loaded them.
+ */
+final class DetachedCopies {
+
+    private DetachedCopies() {
+    }
+
+    static Object copy(Object result) {
+        if (result instanceof User) {
+            return copy((User) result);
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).map(DetachedCopies::copy);
+        }
+        if (result instanceof Page) {
+            return ((Page<?>) result).map(DetachedCopies::copy);
+        }
+        if (result instanceof Iterable) {
+            List<Object> copies = new ArrayList<>();
+            ((Iterable<?>) result).forEach(element -> copies.add(copy(element)));
+            return copies;
+        }
+        // Counts and flags are immutable.
+        return result;
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .dayOfBirth(user.getDayOfBirth())
+                .build();
+    }
+}
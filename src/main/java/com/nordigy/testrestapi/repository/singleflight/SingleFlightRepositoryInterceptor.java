@@ -0,0 +1,151 @@
+package com.nordigy.testrestapi.repository.singleflight;
+
+import com.nordigy.testrestapi.config.SingleFlightProperties;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets concurrent identical reads share one repository call.
+ * <p>
+ * Every write bumps the write epoch when it starts and again when it finishes, and the epoch is part of the
+ * flight key. A read therefore only joins a flight that started after every write completed before the read
+ * itself began, so it never observes data older than its own start.
+ * <p>
+ * Only reads issued while serving GET/HEAD requests are coalesced. The leader of a flight returns its own
+ * result; every other reader gets a {@link DetachedCopies detached copy} of it, and queries the database
+ * itself if the leader takes longer than the wait timeout.
+ */
+public class SingleFlightRepositoryInterceptor implements MethodInterceptor {
+
+    private static final Set<String> READ_METHODS = Set.of(
+            "findById", "existsById", "findAll", "findAllById", "count", "findOne", "exists",
+            "findByIdGreaterThanAndIdLessThanEqual");
+
+    private final ObjectProvider<SingleFlightProperties> properties;
+    private final ConcurrentMap<FlightKey, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    private final AtomicLong writeEpoch = new AtomicLong();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder absorbed = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public SingleFlightRepositoryInterceptor(ObjectProvider<SingleFlightProperties> properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        if (!READ_METHODS.contains(method.getName())) {
+            writeEpoch.incrementAndGet();
+            try {
+                return invocation.proceed();
+            } finally {
+                writeEpoch.incrementAndGet();
+            }
+        }
+        if (!isSafeRequest()) {
+            bypassed.increment();
+            return invocation.proceed();
+        }
+
+        FlightKey key = new FlightKey(writeEpoch.get(), method, invocation.getArguments());
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            try {
+                Object result = await(inFlight);
+                absorbed.increment();
+                return DetachedCopies.copy(result);
+            } catch (TimeoutException ex) {
+                timedOut.increment();
+                return invocation.proceed();
+            }
+        }
+        executed.increment();
+        try {
+            Object result = invocation.proceed();
+            flight.complete(DetachedCopies.copy(result));
+            return result;
+        } catch (Throwable ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    public SingleFlightStats getStats() {
+        return new SingleFlightStats(executed.sum(), absorbed.sum(), bypassed.sum(), timedOut.sum(), flights.size());
+    }
+
+    private Object await(CompletableFuture<Object> flight) throws Throwable {
+        try {
+            return flight.get(properties.getObject().getWaitTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static boolean isSafeRequest() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (!(requestAttributes instanceof ServletRequestAttributes)) {
+            return false;
+        }
+        HttpMethod method = HttpMethod.resolve(((ServletRequestAttributes) requestAttributes).getRequest().getMethod());
+        return method == HttpMethod.GET || method == HttpMethod.HEAD;
+    }
+
+    private static final class FlightKey {
+
+        private final long epoch;
+        private final Method method;
+        private final Object[] arguments;
+        private final int hash;
+
+        FlightKey(long epoch, Method method, Object[] arguments) {
+            this.epoch = epoch;
+            this.method = method;
+            this.arguments = arguments;
+            this.hash = Objects.hash(epoch, method, Arrays.deepHashCode(arguments));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FlightKey)) {
+                return false;
+            }
+            FlightKey other = (FlightKey) o;
+            return epoch == other.epoch && method.equals(other.method) && Arrays.deepEquals(arguments, other.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.nordigy.testrestapi.repository.singleflight;
+
+import com.nordigy.testrestapi.config.SingleFlightProperties;
+import com.nordigy.testrestapi.repository.UserRepository;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+/**
+ * Wraps the {@link UserRepository} bean with a {@link SingleFlightRepositoryInterceptor}.
+ * Runs last, so the single-flight layer sits in front of all other repository decorators.
+ */
+public class SingleFlightRepositoryPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final SingleFlightRepositoryInterceptor interceptor;
+
+    public SingleFlightRepositoryPostProcessor(ObjectProvider<SingleFlightProperties> properties) {
+        this.interceptor = new SingleFlightRepositoryInterceptor(properties);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof UserRepository)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    public SingleFlightStats getStats() {
+        return interceptor.getStats();
+    }
+}
@@ -0,0 +1,14 @@
+package com.nordigy.testrestapi.repository.singleflight;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SingleFlightStats {
+    private long executed;
+    private long absorbed;
+    private long bypassed;
+    private long timedOut;
+    private int inFlight;
+}
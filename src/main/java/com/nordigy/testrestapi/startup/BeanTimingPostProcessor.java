@@ -0,0 +1,64 @@
+package com.nordigy.testrestapi.startup;
+
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures how long each bean takes from instantiation to the end of its initialization. Beans created while
+ * another bean is being created (its dependencies) are subtracted from the outer bean, so the recorded
+ * time is what the bean itself costs.
+ */
+class BeanTimingPostProcessor implements InstantiationAwareBeanPostProcessor {
+
+    private final ThreadLocal<Deque<Frame>> inProgress = ThreadLocal.withInitial(ArrayDeque::new);
+    private final Map<String, Long> selfNanos = new ConcurrentHashMap<>();
+    private volatile boolean recording = true;
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+        if (recording) {
+            inProgress.get().push(new Frame(beanName, System.nanoTime()));
+        }
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Deque<Frame> frames = inProgress.get();
+        Frame frame = frames.peek();
+        // Objects produced by factory beans are post-processed without being instantiated here.
+        if (frame == null || !frame.beanName.equals(beanName)) {
+            return bean;
+        }
+        frames.pop();
+        long total = System.nanoTime() - frame.start;
+        selfNanos.merge(beanName, total - frame.childNanos, Long::sum);
+        Frame parent = frames.peek();
+        if (parent != null) {
+            parent.childNanos += total;
+        }
+        return bean;
+    }
+
+    Map<String, Long> stopRecording() {
+        recording = false;
+        inProgress.remove();
+        return selfNanos;
+    }
+
+    private static class Frame {
+
+        private final String beanName;
+        private final long start;
+        private long childNanos;
+
+        Frame(String beanName, long start) {
+            this.beanName = beanName;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.nordigy.testrestapi.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringApplicationRunListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Logs how long each startup phase and the slowest beans took, when {@code startup.timing.enabled=true}.
+ */
+public class StartupTimingRunListener implements SpringApplicationRunListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingRunListener.class);
+
+    private static final int SLOWEST_BEANS = 25;
+
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private long phaseStart;
+    private boolean enabled;
+    private BeanTimingPostProcessor beanTiming;
+
+    public StartupTimingRunListener(SpringApplication application, String[] args) {
+    }
+
+    @Override
+    public void starting() {
+        phaseStart = System.nanoTime();
+    }
+
+    @Override
+    public void environmentPrepared(ConfigurableEnvironment environment) {
+        enabled = environment.getProperty("startup.timing.enabled", Boolean.class, false);
+        endPhase("environment");
+    }
+
+    @Override
+    public void contextPrepared(ConfigurableApplicationContext context) {
+        endPhase("context preparation");
+        if (enabled) {
+            beanTiming = new BeanTimingPostProcessor();
+            context.getBeanFactory().addBeanPostProcessor(beanTiming);
+        }
+    }
+
+    @Override
+    public void contextLoaded(ConfigurableApplicationContext context) {
+        endPhase("bean definition loading");
+    }
+
+    @Override
+    public void started(ConfigurableApplicationContext context) {
+        endPhase("context refresh");
+    }
+
+    @Override
+    public void running(ConfigurableApplicationContext context) {
+        endPhase("runners");
+        if (!enabled) {
+            return;
+        }
+        Map<String, Long> beans = beanTiming.stopRecording();
+        long totalNanos = phaseNanos.values().stream().mapToLong(Long::longValue).sum();
+        String phases = phaseNanos.entrySet().stream()
+                .map(phase -> String.format("  %-25s %6d ms", phase.getKey(), millis(phase.getValue())))
+                .collect(Collectors.joining(System.lineSeparator()));
+        String slowest = beans.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(SLOWEST_BEANS)
+                .map(bean -> String.format("  %-60s %6d ms", bean.getKey(), millis(bean.getValue())))
+                .collect(Collectors.joining(System.lineSeparator()));
+        log.info("Started in {} ms{}Phases:{}{}{}{} beans created, slowest:{}{}", millis(totalNanos),
+                System.lineSeparator(), System.lineSeparator(), phases, System.lineSeparator(),
+                beans.size(), System.lineSeparator(), slowest);
+    }
+
+    @Override
+    public void failed(ConfigurableApplicationContext context, Throwable exception) {
+        if (beanTiming != null) {
+            beanTiming.stopRecording();
+        }
+    }
+
+    private void endPhase(String phase) {
+        long now = System.nanoTime();
+        phaseNanos.put(phase, now - phaseStart);
+        phaseStart = now;
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
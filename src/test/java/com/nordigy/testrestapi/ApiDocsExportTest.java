@@ -0,0 +1,51 @@
+package com.nordigy.testrestapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the Swagger spec checked in at src/main/resources/swagger/api-docs.json, which
+ * StaticApiDocsController serves when the application runs with startup.static-api-docs=true, matches the
+ * spec Springfox generates. After an API change, regenerate it with {@code mvn test -Dtest=ApiDocsExportTest
+ * -Dapi-docs.export=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ApiDocsExportTest {
+
+    private static final Path API_DOCS = Paths.get("src", "main", "resources", "swagger", "api-docs.json");
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void shouldMatchCheckedInApiDocs() throws Exception {
+        ObjectNode apiDocs = given().log().ifValidationFails()
+                .port(port)
+                .when().get("/v2/api-docs")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .extract().body().as(ObjectNode.class);
+        assertThat(apiDocs.get("paths").has("/api/users")).isTrue();
+
+        // The host is the random test port; without it Swagger UI uses the host the spec was loaded from.
+        apiDocs.remove("host");
+        ObjectMapper objectMapper = new ObjectMapper();
+        if (Boolean.getBoolean("api-docs.export")) {
+            Files.createDirectories(API_DOCS.getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(API_DOCS.toFile(), apiDocs);
+        }
+        assertThat(objectMapper.readTree(API_DOCS.toFile()))
+                .as("%s is out of date, regenerate it with -Dapi-docs.export=true", API_DOCS)
+                .isEqualTo(apiDocs);
+    }
+}
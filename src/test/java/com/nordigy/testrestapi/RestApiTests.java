@@ -4,47 +4,39 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.restassured.RestAssured;
+import com.nordigy.testrestapi.support.IsolatedApplicationExtension;
 import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
-import org.junit.runner.RunWith;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.web.server.LocalServerPort;
-import org.springframework.test.annotation.DirtiesContext;
-import org.springframework.test.context.junit4.SpringRunner;
 
-import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static io.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
-import static org.springframework.test.annotation.DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD;
 
-@RunWith(SpringRunner.class)
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
-// It allows to refresh context(Database) before an each method. So your tests always will be executed on the same snapshot of DB.
-@DirtiesContext(classMode = BEFORE_EACH_TEST_METHOD)
+// Every test gets its own application and database with the same initial users, so tests run concurrently
+// and always start from the same snapshot of the DB.
+@ExtendWith(IsolatedApplicationExtension.class)
+@Execution(ExecutionMode.CONCURRENT)
 class RestApiTests {
 
-    @LocalServerPort
-    private int port;
-
-    @PostConstruct
-    public void init() {
-        RestAssured.port = port;
-    }
-
     @Test
-    public void shouldReturnCorrectUsersListSize() {
-        given().log().all()
+    public void shouldReturnCorrectUsersListSize(RequestSpecification api) {
+        given(api).log().all()
                 .queryParam("size", 2)
                 .when().get("/api/users")
                 .then().log().ifValidationFails()
@@ -53,7 +45,7 @@ class RestApiTests {
     }
 
     @Test
-    public void shouldCreateNewUser() {
+    public void shouldCreateNewUser(RequestSpecification api) {
         ObjectMapper objectMapper = new ObjectMapper();
         ObjectNode objectNode = objectMapper.createObjectNode();
         objectNode.put("firstName", "Ivan");
@@ -61,7 +53,7 @@ class RestApiTests {
         objectNode.put("dayOfBirth", "2000-01-01");
         objectNode.put("email", "asdas@asdas.tr");
 
-        ObjectNode user = given().log().all()
+        ObjectNode user = given(api).log().all()
                 .body(objectNode)
                 .contentType(ContentType.JSON)
                 .when().post("/api/users")
@@ -94,8 +86,8 @@ class RestApiTests {
 
     @ParameterizedTest
     @MethodSource("providerForTotalPages")
-    public void shouldReturnCorrectUsersListTotalPage(String size, int totalPagesExpected) {
-        given().log().all()
+    public void shouldReturnCorrectUsersListTotalPage(String size, int totalPagesExpected, RequestSpecification api) {
+        given(api).log().all()
                 .queryParam("size", size)
                 .when().get("/api/users")
                 .then().log().ifValidationFails()
@@ -117,8 +109,8 @@ class RestApiTests {
 
     @ParameterizedTest
     @MethodSource("providerForNumber")
-    public void shouldReturnCorrectNumberOfUsersList(String page, int number, int countOfUsers) {
-        JsonNode response = given().log().all()
+    public void shouldReturnCorrectNumberOfUsersList(String page, int number, int countOfUsers, RequestSpecification api) {
+        JsonNode response = given(api).log().all()
                 .queryParam("size", 2)
                 .queryParam("page", page)
                 .when().get("/api/users")
@@ -147,8 +139,8 @@ class RestApiTests {
 
     @ParameterizedTest
     @MethodSource("providerSort")
-    public void shouldReturnCorrectSortedUsersList(String field, String comp) {
-        JsonNode response = given().log().all()
+    public void shouldReturnCorrectSortedUsersList(String field, String comp, RequestSpecification api) {
+        JsonNode response = given(api).log().all()
                 .queryParam("sort", field + "," + comp)
                 .when().get("/api/users")
                 .then().log().ifValidationFails()
@@ -174,6 +166,74 @@ class RestApiTests {
         assertThat(isSorted(users, field, comp)).isEqualTo(true);
     }
 
+    @Test
+    public void shouldReturnValidationErrorsInErrorResponseFormat(RequestSpecification api) {
+        ObjectNode objectNode = new ObjectMapper().createObjectNode();
+        objectNode.put("firstName", "Ivan");
+        objectNode.put("lastName", "Ivanov");
+        objectNode.put("dayOfBirth", "2000-01-01");
+        objectNode.put("email", "not-an-email");
+
+        JsonNode error = given(api).log().all()
+                .body(objectNode)
+                .contentType(ContentType.JSON)
+                .when().post("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(400)
+                .extract().body().as(JsonNode.class);
+
+        assertThat(error.fieldNames()).toIterable()
+                .containsExactly("status", "timestamp", "message", "debugMessage", "subErrors");
+        assertThat(error.get("status").asText()).isEqualTo("BAD_REQUEST");
+        assertThat(error.get("timestamp").asText()).matches("\\d{2}-\\d{2}-\\d{4} \\d{2}:\\d{2}:\\d{2}");
+        assertThat(error.get("debugMessage").isNull()).isTrue();
+        JsonNode subError = error.get("subErrors").get(0);
+        assertThat(subError.fieldNames()).toIterable()
+                .containsExactly("object", "field", "rejectedValue", "message");
+        assertThat(subError.get("field").asText()).isEqualTo("email");
+        assertThat(subError.get("rejectedValue").asText()).isEqualTo("not-an-email");
+    }
+
+    @Test
+    public void shouldScanAllUsersThroughPlannedSplits(RequestSpecification api) {
+        JsonNode plan = given(api).log().all()
+                .queryParam("partitions", 3)
+                .when().get("/api/users/scan/plan")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("totalUsers", is(20))
+                .body("highWatermark", is(20))
+                .extract().body().as(JsonNode.class);
+
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode split : plan.get("splits")) {
+            JsonNode page = given(api).log().all()
+                    .queryParam("after", split.get("afterId").asLong())
+                    .queryParam("upTo", split.get("upToId").asLong())
+                    .queryParam("size", 100)
+                    .when().get("/api/users/scan")
+                    .then().log().ifValidationFails()
+                    .statusCode(200)
+                    .extract().body().as(JsonNode.class);
+            assertThat(page.get("nextAfter").isNull()).isTrue();
+            page.get("users").forEach(user -> ids.add(user.get("id").asLong()));
+        }
+        assertThat(plan.get("splits").size()).isEqualTo(3);
+        assertThat(ids).containsExactlyElementsOf(LongStream.rangeClosed(1, 20).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldRejectMalformedSizeOfScan(RequestSpecification api) {
+        given(api).log().all()
+                .queryParam("after", 0)
+                .queryParam("upTo", 20)
+                .queryParam("size", "abc")
+                .when().get("/api/users/scan")
+                .then().log().ifValidationFails()
+                .statusCode(400)
+                .body("message", is("The parameter 'size' of value 'abc' could not be converted to type 'int'"));
+    }
+
     @SuppressWarnings({"rawtypes", "unchecked"})
     private boolean isSorted(ArrayList<User> users, String field, String comp) {
         for (int i = 1; i < users.size(); i++) {
@@ -0,0 +1,49 @@
+package com.nordigy.testrestapi.api;
+
+import com.nordigy.testrestapi.init.DataInitializer;
+import com.nordigy.testrestapi.model.error.ErrorResponse;
+import com.nordigy.testrestapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadinessControllerTest {
+
+    @Test
+    public void shouldReportFailedAsyncInitialization() throws Exception {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.count()).thenThrow(new IllegalStateException("Database is unavailable"));
+        DataInitializer dataInitializer = new DataInitializer(userRepository);
+        ReflectionTestUtils.setField(dataInitializer, "seedAsync", true);
+        ReadinessController readinessController = new ReadinessController(dataInitializer);
+
+        dataInitializer.run();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (dataInitializer.getFailure() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        ResponseEntity<Object> response = readinessController.readiness();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        ErrorResponse error = (ErrorResponse) response.getBody();
+        assertThat(error.getMessage()).isEqualTo("Data initialization failed");
+        assertThat(error.getDebugMessage()).isEqualTo("Database is unavailable");
+        assertThat(dataInitializer.isInitialized()).isFalse();
+    }
+
+    @Test
+    public void shouldBeReadyAfterInitialization() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.count()).thenReturn(20L);
+        DataInitializer dataInitializer = new DataInitializer(userRepository);
+
+        dataInitializer.run();
+
+        assertThat(new ReadinessController(dataInitializer).readiness().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+}
@@ -0,0 +1,45 @@
+package com.nordigy.testrestapi.api;
+
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.notNullValue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "startup.static-api-docs=true")
+class StaticApiDocsControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    private RequestSpecification api;
+
+    @BeforeEach
+    public void setUp() {
+        api = given().port(port);
+    }
+
+    @Test
+    public void shouldServePackagedApiDocs() {
+        given(api).log().ifValidationFails()
+                .when().get("/v2/api-docs")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("swagger", notNullValue())
+                .body("paths.'/api/users'", notNullValue());
+    }
+
+    @Test
+    public void shouldListPackagedApiDocs() {
+        given(api).log().ifValidationFails()
+                .when().get("/swagger-resources")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("url", hasItem("/v2/api-docs"));
+    }
+}
@@ -0,0 +1,191 @@
+package com.nordigy.testrestapi.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UserChangeFeedApiTest {
+
+    @LocalServerPort
+    private int port;
+
+    private RequestSpecification api;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private final List<Stream<String>> streams = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        api = given().port(port);
+    }
+
+    @AfterEach
+    public void closeStreams() {
+        streams.forEach(Stream::close);
+    }
+
+    @Test
+    public void shouldReturnCreatedUserInChangeFeed() {
+        String token = given(api)
+                .when().get("/api/users/changes")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("resyncRequired", is(true))
+                .extract().path("nextToken");
+
+        createUser("changes@asdas.tr");
+
+        given(api)
+                .queryParam("since", token)
+                .when().get("/api/users/changes")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("resyncRequired", is(false))
+                .body("changes.size()", is(1))
+                .body("changes[0].type", is("CREATED"))
+                .body("changes[0].user.email", is("changes@asdas.tr"));
+    }
+
+    @Test
+    public void shouldStreamChangesAfterToken() throws Exception {
+        String token = currentToken();
+        BlockingQueue<String> lines = stream(HttpRequest.newBuilder(streamUri("?since=" + token)));
+
+        int id = createUser("stream@asdas.tr");
+
+        List<String> event = nextEvent(lines);
+        assertThat(event).contains("event:change", "id:" + currentToken());
+        assertThat(data(event).get("type").asText()).isEqualTo("CREATED");
+        assertThat(data(event).get("id").asInt()).isEqualTo(id);
+        assertThat(data(event).get("user").get("email").asText()).isEqualTo("stream@asdas.tr");
+    }
+
+    @Test
+    public void shouldResumeFromLastEventId() throws Exception {
+        String token = currentToken();
+        int id = createUser("resume@asdas.tr");
+        given(api)
+                .when().delete("/api/users/" + id)
+                .then().log().ifValidationFails()
+                .statusCode(204);
+
+        BlockingQueue<String> lines = stream(HttpRequest.newBuilder(streamUri(""))
+                .header("Last-Event-ID", token));
+
+        assertThat(data(nextEvent(lines)).get("type").asText()).isEqualTo("CREATED");
+        List<String> deleted = nextEvent(lines);
+        assertThat(deleted).contains("id:" + currentToken());
+        assertThat(data(deleted).get("type").asText()).isEqualTo("DELETED");
+        assertThat(data(deleted).get("id").asInt()).isEqualTo(id);
+    }
+
+    @Test
+    public void shouldSendResyncForUnknownToken() throws Exception {
+        BlockingQueue<String> lines = stream(HttpRequest.newBuilder(streamUri("?since=unknown-1")));
+
+        List<String> event = nextEvent(lines);
+        assertThat(event).contains("event:resync", "data:" + currentToken());
+    }
+
+    private String currentToken() {
+        return given(api)
+                .when().get("/api/users/changes")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .extract().path("nextToken");
+    }
+
+    private int createUser(String email) {
+        ObjectNode objectNode = new ObjectMapper().createObjectNode();
+        objectNode.put("firstName", "Ivan");
+        objectNode.put("lastName", "Ivanov");
+        objectNode.put("dayOfBirth", "2000-01-01");
+        objectNode.put("email", email);
+        return given(api)
+                .body(objectNode)
+                .contentType(ContentType.JSON)
+                .when().post("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(201)
+                .extract().path("id");
+    }
+
+    private URI streamUri(String query) {
+        return URI.create("http://localhost:" + port + "/api/users/changes/stream" + query);
+    }
+
+    /**
+     * Opens the stream and returns its lines, read in the background until the stream is closed.
+     */
+    private BlockingQueue<String> stream(HttpRequest.Builder request) throws Exception {
+        HttpResponse<Stream<String>> response = httpClient
+                .sendAsync(request.header("Accept", "text/event-stream").build(), HttpResponse.BodyHandlers.ofLines())
+                .get(10, TimeUnit.SECONDS);
+        assertThat(response.statusCode()).isEqualTo(200);
+        streams.add(response.body());
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        Iterator<String> iterator = response.body().iterator();
+        CompletableFuture.runAsync(() -> {
+            try {
+                iterator.forEachRemaining(lines::add);
+            } catch (RuntimeException ex) {
+                // The stream was closed by the test.
+            }
+        });
+        return lines;
+    }
+
+    private static List<String> nextEvent(BlockingQueue<String> lines) throws InterruptedException {
+        List<String> event = new ArrayList<>();
+        while (true) {
+            String line = lines.poll(10, TimeUnit.SECONDS);
+            assertThat(line).as("next line of the event stream").isNotNull();
+            if (line.isEmpty() && !event.isEmpty()) {
+                return event;
+            }
+            // Comments, like the one opening the stream, are not part of any event.
+            if (!line.isEmpty() && !line.startsWith(":")) {
+                event.add(line);
+            }
+        }
+    }
+
+    private static ObjectNode data(List<String> event) {
+        String data = event.stream()
+                .filter(line -> line.startsWith("data:"))
+                .map(line -> line.substring("data:".length()))
+                .findFirst()
+                .orElseThrow();
+        try {
+            return (ObjectNode) new ObjectMapper().readTree(data);
+        } catch (IOException ex) {
+            throw new AssertionError("Malformed event data " + data, ex);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.nordigy.testrestapi.api.admission;
+
+import com.nordigy.testrestapi.config.AdmissionControlProperties.Concurrency;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = TARGET / 2;
+    private static final long SLOW = TARGET * 2;
+
+    private static AdaptiveConcurrencyLimit limit(int initial, int min, int max) {
+        Concurrency concurrency = new Concurrency();
+        concurrency.setInitialLimit(initial);
+        concurrency.setMinLimit(min);
+        concurrency.setMaxLimit(max);
+        concurrency.setTargetLatency(Duration.ofNanos(TARGET));
+        return new AdaptiveConcurrencyLimit(concurrency);
+    }
+
+    @Test
+    public void shouldRejectRequestsAboveTheLimitUntilOneIsReleased() {
+        AdaptiveConcurrencyLimit limit = limit(2, 1, 2);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release(FAST, System.nanoTime());
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void shouldGrowByOneWhileFastAndUtilized() {
+        AdaptiveConcurrencyLimit limit = limit(4, 2, 5);
+        for (int i = 0; i < 4; i++) {
+            limit.tryAcquire();
+        }
+
+        limit.release(FAST, System.nanoTime());
+        assertThat(limit.getLimit()).isEqualTo(5);
+
+        limit.tryAcquire();
+        limit.release(FAST, System.nanoTime());
+        assertThat(limit.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldNotGrowWhileUnderutilized() {
+        AdaptiveConcurrencyLimit limit = limit(4, 2, 8);
+
+        limit.tryAcquire();
+        limit.release(FAST, System.nanoTime());
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldBackOffMultiplicativelyAtMostOncePerTargetLatency() {
+        AdaptiveConcurrencyLimit limit = limit(10, 2, 20);
+        long now = System.nanoTime();
+
+        limit.tryAcquire();
+        limit.release(SLOW, now);
+        assertThat(limit.getLimit()).isEqualTo(9);
+
+        limit.tryAcquire();
+        limit.release(SLOW, now + TARGET / 2);
+        assertThat(limit.getLimit()).isEqualTo(9);
+
+        limit.tryAcquire();
+        limit.release(SLOW, now + TARGET);
+        assertThat(limit.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    public void shouldNotBackOffBelowMinLimit() {
+        AdaptiveConcurrencyLimit limit = limit(3, 2, 4);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 3; i++) {
+            limit.tryAcquire();
+            limit.release(SLOW, now + i * TARGET);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,158 @@
+package com.nordigy.testrestapi.api.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nordigy.testrestapi.api.ErrorResponseWriter;
+import com.nordigy.testrestapi.config.AdmissionControlProperties;
+import com.nordigy.testrestapi.config.AdmissionControlProperties.RateLimit;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AdmissionControlFilterTest {
+
+    private static final String PROXY = "10.0.0.1";
+
+    private static MockMvc mockMvc(AdmissionControlProperties properties) {
+        return mockMvc(properties, "/api");
+    }
+
+    private static MockMvc mockMvc(AdmissionControlProperties properties, String basePath) {
+        RepositoryRestConfiguration repositoryRestConfiguration = mock(RepositoryRestConfiguration.class);
+        when(repositoryRestConfiguration.getBasePath()).thenReturn(URI.create(basePath));
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, new ErrorResponseWriter(new ObjectMapper()),
+                repositoryRestConfiguration);
+        return MockMvcBuilders.standaloneSetup(new UsersController()).addFilter(filter).build();
+    }
+
+    private static AdmissionControlProperties oneRequestPerClient() {
+        RateLimit limit = new RateLimit();
+        limit.setPermitsPerSecond(0.01);
+        limit.setBurst(1);
+        AdmissionControlProperties properties = new AdmissionControlProperties();
+        properties.setEnabled(true);
+        properties.setDefaultLimit(limit);
+        return properties;
+    }
+
+    private static MockHttpServletRequestBuilder getUsers(String remoteAddress, String clientId) {
+        return get("/api/users")
+                .header("X-Client-Id", clientId)
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddress);
+                    return request;
+                });
+    }
+
+    @Test
+    public void shouldRejectRequestsAboveRateLimitWithRetryAfter() throws Exception {
+        MockMvc mockMvc = mockMvc(oneRequestPerClient());
+
+        mockMvc.perform(getUsers("192.168.0.1", "client"))
+                .andExpect(status().isOk());
+        mockMvc.perform(getUsers("192.168.0.1", "client"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "100"))
+                .andExpect(jsonPath("$.message", is("Too many requests")))
+                .andExpect(jsonPath("$.debugMessage", is("Rate limit exceeded for GET requests")))
+                .andExpect(content().string(not(containsString("client"))));
+    }
+
+    @Test
+    public void shouldKeyUntrustedClientsByRemoteAddress() throws Exception {
+        MockMvc mockMvc = mockMvc(oneRequestPerClient());
+
+        mockMvc.perform(getUsers("192.168.0.1", "first"))
+                .andExpect(status().isOk());
+        mockMvc.perform(getUsers("192.168.0.1", "second"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(getUsers("192.168.0.2", "second"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void shouldKeyClientsBehindTrustedProxyByHeader() throws Exception {
+        AdmissionControlProperties properties = oneRequestPerClient();
+        properties.setTrustedProxies(List.of(PROXY));
+        MockMvc mockMvc = mockMvc(properties);
+
+        mockMvc.perform(getUsers(PROXY, "first"))
+                .andExpect(status().isOk());
+        mockMvc.perform(getUsers(PROXY, "second"))
+                .andExpect(status().isOk());
+        mockMvc.perform(getUsers(PROXY, "first"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    public void shouldOnlyLimitUsersPathAndItsSubPaths() throws Exception {
+        MockMvc mockMvc = mockMvc(oneRequestPerClient());
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/usersX"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    public void shouldNotLimitByDefault() throws Exception {
+        AdmissionControlProperties properties = oneRequestPerClient();
+        properties.setEnabled(new AdmissionControlProperties().isEnabled());
+        MockMvc mockMvc = mockMvc(properties);
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(getUsers("192.168.0.1", "client"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    public void shouldLimitUsersPathUnderConfiguredBasePath() throws Exception {
+        MockMvc mockMvc = mockMvc(oneRequestPerClient(), "/v2");
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/users"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/v2/users"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/v2/users"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    /**
+     * Not a {@code @RestController}: component scanning of the applications started by other tests would
+     * pick it up and map it over the repository resources.
+     */
+    @RequestMapping
+    static class UsersController {
+
+        @GetMapping({"/api/users", "/api/users/1", "/api/usersX", "/v2/users"})
+        @ResponseBody
+        public String users() {
+            return "[]";
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.nordigy.testrestapi.api.admission;
+
+import com.nordigy.testrestapi.config.AdmissionControlProperties.RateLimit;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientRateLimiterTest {
+
+    private static ClientRateLimiter oneRequestPerSecond(int maxTrackedClients) {
+        RateLimit limit = new RateLimit();
+        limit.setPermitsPerSecond(1);
+        limit.setBurst(1);
+        return new ClientRateLimiter(limit, maxTrackedClients, 0);
+    }
+
+    @Test
+    public void shouldShareOverflowBucketBetweenUntrackedClients() {
+        ClientRateLimiter limiter = oneRequestPerSecond(2);
+
+        assertThat(limiter.tryAcquire("first", 0)).isZero();
+        assertThat(limiter.tryAcquire("second", 0)).isZero();
+        assertThat(limiter.tryAcquire("third", 0)).isZero();
+        assertThat(limiter.tryAcquire("fourth", 0)).isPositive();
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldEvictFullBucketsBeforeSharingOverflowBucket() {
+        ClientRateLimiter limiter = oneRequestPerSecond(2);
+        limiter.tryAcquire("first", 0);
+        limiter.tryAcquire("second", 0);
+
+        long refilled = TimeUnit.SECONDS.toNanos(2);
+        assertThat(limiter.tryAcquire("third", refilled)).isZero();
+        assertThat(limiter.tryAcquire("third", refilled)).isPositive();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldBoundTrackedClientsWhileClientsCycle() {
+        ClientRateLimiter limiter = oneRequestPerSecond(100);
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("client-" + i, i);
+        }
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(100);
+    }
+}
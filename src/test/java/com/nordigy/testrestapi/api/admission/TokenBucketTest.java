@@ -0,0 +1,53 @@
+package com.nordigy.testrestapi.api.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void shouldAdmitBurstAndThenReportWaitTime() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    public void shouldRefillOnePermitPerEmissionInterval() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(INTERVAL / 2)).isEqualTo(INTERVAL / 2);
+        assertThat(bucket.tryAcquire(INTERVAL)).isZero();
+        assertThat(bucket.tryAcquire(INTERVAL)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    public void shouldNotAccumulateMorePermitsThanBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        long later = TimeUnit.SECONDS.toNanos(60);
+
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    public void shouldBeFullOnceAllPermitsAreBack() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        assertThat(bucket.isFull(0)).isTrue();
+
+        bucket.tryAcquire(0);
+        assertThat(bucket.isFull(0)).isFalse();
+        assertThat(bucket.isFull(INTERVAL - 1)).isFalse();
+        assertThat(bucket.isFull(INTERVAL)).isTrue();
+    }
+}
@@ -0,0 +1,195 @@
+package com.nordigy.testrestapi.api.bulkhead;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.servlet.AsyncContext;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the API in bulkhead mode, with bulkheads of a single thread that the tests occupy directly.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"bulkhead.enabled=true", "admission.enabled=false",
+                "bulkhead.request-timeout=3s",
+                "bulkhead.read.threads=1", "bulkhead.read.queue-capacity=4", "bulkhead.read.queue-timeout=10s",
+                "bulkhead.write.threads=1", "bulkhead.write.queue-capacity=1"})
+@Import(BulkheadApiTest.SlowController.class)
+class BulkheadApiTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    private RequestSpecification api;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setUp() {
+        api = given().port(port);
+    }
+
+    @AfterEach
+    public void releaseBulkheads() {
+        release.countDown();
+    }
+
+    @Test
+    public void shouldServeApiOnBulkheads() {
+        given(api)
+                .queryParam("size", 2)
+                .when().get("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("page.totalElements", greaterThanOrEqualTo(20));
+        given(api)
+                .when().get("/api/users/1")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("id", is(1));
+        given(api)
+                .queryParam("size", 1000)
+                .when().get("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("_embedded.users.size()", greaterThanOrEqualTo(20));
+
+        int id = given(api)
+                .body(user("bulkhead@example.com"))
+                .contentType(ContentType.JSON)
+                .when().post("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(201)
+                .extract().path("id");
+        given(api)
+                .when().delete("/api/users/" + id)
+                .then().log().ifValidationFails()
+                .statusCode(204);
+    }
+
+    @Test
+    public void shouldRejectRequestsWhenBulkheadIsFull() {
+        Bulkhead write = bulkheads.route(new MockHttpServletRequest("POST", "/api/users"));
+        occupy(write, 2);
+
+        given(api)
+                .body(user("full@example.com"))
+                .contentType(ContentType.JSON)
+                .when().post("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(503)
+                .body("message", is("Service is overloaded"))
+                .body("debugMessage", is("Bulkhead 'write' is full"));
+
+        release.countDown();
+        given(api)
+                .body(user("full@example.com"))
+                .contentType(ContentType.JSON)
+                .when().post("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(201);
+    }
+
+    @Test
+    public void shouldAnswerRequestsExceedingRequestTimeout() {
+        Bulkhead read = bulkheads.route(new MockHttpServletRequest("GET", "/api/users/1"));
+        occupy(read, 1);
+
+        long start = System.nanoTime();
+        given(api)
+                .when().get("/api/users/1")
+                .then().log().ifValidationFails()
+                .statusCode(503)
+                .body("debugMessage", is("Request in bulkhead 'read' took more than 3000 ms"));
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    public void shouldLetRunningRequestsFinishAfterRequestTimeout() {
+        long start = System.nanoTime();
+        given(api)
+                .queryParam("millis", 5000)
+                .when().get("/api/users/slow")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body(is("slow"));
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.SECONDS.toNanos(5));
+
+        // The bulkhead thread and the connection are free again, and answer the next request on their own.
+        given(api)
+                .when().get("/api/users/1")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("id", is(1));
+    }
+
+    @Test
+    public void shouldOnlyRouteUsersPathAndItsSubPaths() {
+        assertThat(bulkheads.route(new MockHttpServletRequest("GET", "/api/users"))).isNotNull();
+        assertThat(bulkheads.route(new MockHttpServletRequest("GET", "/api/users/1"))).isNotNull();
+        assertThat(bulkheads.route(new MockHttpServletRequest("GET", "/api/usersX"))).isNull();
+        assertThat(bulkheads.route(new MockHttpServletRequest("GET", "/api/users/changes/stream"))).isNull();
+    }
+
+    /**
+     * Takes the given number of slots of the bulkhead (its thread first, then its queue) until the test ends.
+     */
+    private void occupy(Bulkhead bulkhead, int slots) {
+        for (int i = 0; i < slots; i++) {
+            bulkhead.submit(mock(AsyncContext.class), () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    /**
+     * A request that runs longer than the request timeout on the read bulkhead. Registered by {@link Import}
+     * only, so that component scanning of other tests' applications does not pick it up.
+     */
+    @RequestMapping("/api/users/slow")
+    static class SlowController {
+
+        @GetMapping
+        @ResponseBody
+        public String slow(@RequestParam long millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return "slow";
+        }
+    }
+
+    private static ObjectNode user(String email) {
+        ObjectNode user = new ObjectMapper().createObjectNode();
+        user.put("firstName", "Ivan");
+        user.put("lastName", "Ivanov");
+        user.put("dayOfBirth", "2000-01-01");
+        user.put("email", email);
+        return user;
+    }
+}
@@ -0,0 +1,152 @@
+package com.nordigy.testrestapi.benchmark;
+
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the tail latency of cheap single-user reads while other clients run exports and writes.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+abstract class AbstractMixedTrafficLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractMixedTrafficLoadTest.class);
+
+    private static final int EXTRA_USERS = 20_000;
+    private static final int FAST_CLIENTS = 16;
+    private static final int EXPORT_CLIENTS = 8;
+    private static final int WRITE_CLIENTS = 8;
+    private static final Duration DURATION = Duration.ofSeconds(20);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ExecutorService httpClientExecutor = Executors.newFixedThreadPool(8);
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(httpClientExecutor)
+            .build();
+    private final AtomicInteger emailSequence = new AtomicInteger();
+
+    @AfterEach
+    public void shutdownHttpClient() {
+        httpClientExecutor.shutdownNow();
+    }
+
+    @Test
+    public void shouldKeepFastReadsFastUnderMixedTraffic() throws Exception {
+        userRepository.saveAll(IntStream.range(0, EXTRA_USERS)
+                .mapToObj(i -> user("bulk-" + i + "@example.com"))
+                .collect(Collectors.toList()));
+
+        ConcurrentMap<Integer, Integer> statuses = new ConcurrentHashMap<>();
+        List<List<Long>> fastLatencies = new ArrayList<>();
+        ExecutorService clients = Executors.newFixedThreadPool(FAST_CLIENTS + EXPORT_CLIENTS + WRITE_CLIENTS);
+        CountDownLatch done = new CountDownLatch(FAST_CLIENTS + EXPORT_CLIENTS + WRITE_CLIENTS);
+        long deadline = System.nanoTime() + DURATION.toNanos();
+
+        for (int i = 0; i < FAST_CLIENTS; i++) {
+            List<Long> latencies = new ArrayList<>();
+            fastLatencies.add(latencies);
+            String path = "/api/users/" + (1 + i % 20);
+            clients.execute(loop(deadline, done, statuses, latencies, () -> get(path)));
+        }
+        for (int i = 0; i < EXPORT_CLIENTS; i++) {
+            clients.execute(loop(deadline, done, statuses, new ArrayList<>(), () -> get("/api/users?size=1000&sort=email,desc")));
+        }
+        for (int i = 0; i < WRITE_CLIENTS; i++) {
+            clients.execute(loop(deadline, done, statuses, new ArrayList<>(), this::post));
+        }
+        assertThat(done.await(DURATION.toSeconds() + 60, TimeUnit.SECONDS)).isTrue();
+        clients.shutdown();
+
+        long[] latencies = fastLatencies.stream().flatMap(List::stream).mapToLong(Long::longValue).sorted().toArray();
+        log.info("{}: {} fast reads, p50={} ms, p99={} ms, p99.9={} ms, max={} ms, statuses={}",
+                getClass().getSimpleName(), latencies.length,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                percentile(latencies, 1.0), statuses);
+        assertThat(latencies).isNotEmpty();
+    }
+
+    private Runnable loop(long deadline, CountDownLatch done, ConcurrentMap<Integer, Integer> statuses,
+                          List<Long> latencies, RequestFactory requestFactory) {
+        return () -> {
+            try {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = httpClient.send(requestFactory.create(), HttpResponse.BodyHandlers.discarding());
+                    latencies.add(System.nanoTime() - start);
+                    statuses.merge(response.statusCode(), 1, Integer::sum);
+                }
+            } catch (Exception ex) {
+                log.error("Load client failed", ex);
+            } finally {
+                done.countDown();
+            }
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+    }
+
+    private HttpRequest post() {
+        String body = String.format("{\"firstName\":\"Load\",\"lastName\":\"Test\",\"dayOfBirth\":\"1990-01-01\",\"email\":\"load-%d@example.com\"}",
+                emailSequence.incrementAndGet());
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .firstName("Bulk")
+                .lastName("User")
+                .email(email)
+                .dayOfBirth(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    private static long percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile * sortedNanos.length) - 1);
+        return TimeUnit.NANOSECONDS.toMillis(sortedNanos[Math.max(0, index)]);
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        HttpRequest create();
+    }
+}
@@ -0,0 +1,116 @@
+package com.nordigy.testrestapi.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures how many client-error responses per second the API serves: validation failures, malformed JSON,
+ * duplicate emails and unparseable paging parameters. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "admission.enabled=false")
+class ErrorPathThroughputBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ErrorPathThroughputBenchmarkTest.class);
+
+    private static final int CLIENTS = 16;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration DURATION = Duration.ofSeconds(15);
+
+    @LocalServerPort
+    private int port;
+
+    private final ExecutorService httpClientExecutor = Executors.newFixedThreadPool(8);
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(httpClientExecutor)
+            .build();
+
+    enum Scenario {
+        INVALID_USER(400, "POST", "/api/users",
+                "{\"firstName\":\"A\",\"lastName\":\"\",\"dayOfBirth\":\"2990-01-01\",\"email\":\"not-an-email\"}"),
+        MALFORMED_JSON(400, "POST", "/api/users", "{\"firstName\":"),
+        DUPLICATE_EMAIL(409, "POST", "/api/users",
+                "{\"firstName\":\"John\",\"lastName\":\"Doe\",\"dayOfBirth\":\"1990-01-01\",\"email\":\"workingemail-1@gmail.com\"}"),
+        // Repository resources ignore malformed paging parameters, the scan endpoint rejects them.
+        BAD_PAGING(400, "GET", "/api/users/scan?after=0&upTo=20&size=many", null);
+
+        private final int status;
+        private final String method;
+        private final String path;
+        private final String body;
+
+        Scenario(int status, String method, String path, String body) {
+            this.status = status;
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+    }
+
+    @AfterEach
+    public void shutdownHttpClient() {
+        httpClientExecutor.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Scenario.class)
+    public void errorResponsesPerSecond(Scenario scenario) throws Exception {
+        HttpRequest request = request(scenario);
+        run(request, scenario.status, WARMUP);
+        long responses = run(request, scenario.status, DURATION);
+        log.info("{}: {} responses/s with {} clients", scenario, responses / DURATION.toSeconds(), CLIENTS);
+        assertThat(responses).isPositive();
+    }
+
+    private long run(HttpRequest request, int expectedStatus, Duration duration) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            results.add(clients.submit(() -> {
+                long responses = 0;
+                while (System.nanoTime() < deadline) {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    assertThat(response.statusCode()).isEqualTo(expectedStatus);
+                    responses++;
+                }
+                return responses;
+            }));
+        }
+        long responses = 0;
+        for (Future<Long> result : results) {
+            responses += result.get();
+        }
+        clients.shutdown();
+        return responses;
+    }
+
+    private HttpRequest request(Scenario scenario) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + scenario.path));
+        if (scenario.body == null) {
+            return builder.GET().build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .method(scenario.method, HttpRequest.BodyPublishers.ofString(scenario.body))
+                .build();
+    }
+}
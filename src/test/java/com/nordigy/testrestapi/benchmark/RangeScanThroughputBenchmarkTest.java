@@ -0,0 +1,108 @@
+package com.nordigy.testrestapi.benchmark;
+
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.model.UserScanPage;
+import com.nordigy.testrestapi.model.UserScanPlan;
+import com.nordigy.testrestapi.model.UserSplit;
+import com.nordigy.testrestapi.repository.UserRepository;
+import com.nordigy.testrestapi.repository.scan.UserScanPlanner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures how full-table scan throughput grows with the number of planned partitions, each read by its own
+ * thread, and through the parallel stream of the planner. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "single-flight.enabled=false")
+class RangeScanThroughputBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RangeScanThroughputBenchmarkTest.class);
+
+    private static final int USERS = 500_000;
+    private static final int BATCH_SIZE = 10_000;
+    private static final int PAGE_SIZE = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserScanPlanner planner;
+
+    @BeforeEach
+    public void seed() {
+        long missing = USERS - userRepository.count();
+        for (long created = 0; created < missing; created += BATCH_SIZE) {
+            long offset = created;
+            userRepository.saveAll(IntStream.range(0, (int) Math.min(BATCH_SIZE, missing - created))
+                    .mapToObj(i -> user("scan-" + (offset + i) + "@example.com"))
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @ParameterizedTest(name = "{0} partitions")
+    @ValueSource(ints = {1, 2, 4, 8, 16})
+    public void scanThroughput(int partitions) throws Exception {
+        long start = System.nanoTime();
+        UserScanPlan plan = planner.plan(partitions);
+        double planMillis = (System.nanoTime() - start) / 1e6;
+
+        ExecutorService workers = Executors.newFixedThreadPool(plan.getSplits().size());
+        start = System.nanoTime();
+        List<Future<Long>> results = new ArrayList<>();
+        for (UserSplit split : plan.getSplits()) {
+            results.add(workers.submit(() -> scan(split)));
+        }
+        long scanned = 0;
+        for (Future<Long> result : results) {
+            scanned += result.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        workers.shutdown();
+
+        start = System.nanoTime();
+        long streamed = planner.stream(plan, PAGE_SIZE).count();
+        double streamSeconds = (System.nanoTime() - start) / 1e9;
+
+        log.info("{} partitions: planned in {} ms, {} users/s with one thread per split, {} users/s with a parallel stream",
+                plan.getSplits().size(), Math.round(planMillis), Math.round(scanned / seconds), Math.round(streamed / streamSeconds));
+        assertThat(scanned).isEqualTo(plan.getTotalUsers());
+        assertThat(streamed).isEqualTo(plan.getTotalUsers());
+    }
+
+    private long scan(UserSplit split) {
+        long scanned = 0;
+        Long after = split.getAfterId();
+        while (after != null) {
+            UserScanPage page = planner.scan(after, split.getUpToId(), PAGE_SIZE);
+            scanned += page.getUsers().size();
+            after = page.getNextAfter();
+        }
+        return scanned;
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .firstName("Scan")
+                .lastName("User")
+                .email(email)
+                .dayOfBirth(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
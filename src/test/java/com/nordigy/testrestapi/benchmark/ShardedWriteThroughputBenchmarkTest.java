@@ -0,0 +1,78 @@
+package com.nordigy.testrestapi.benchmark;
+
+import com.nordigy.testrestapi.TestRestApiApplication;
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures concurrent insert throughput through {@link UserRepository} without sharding ({@code 0}) and with
+ * a growing number of shards. Run with {@code mvn test -Pbenchmark} on a multi-core machine.
+ */
+@Tag("benchmark")
+class ShardedWriteThroughputBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedWriteThroughputBenchmarkTest.class);
+
+    private static final int WRITERS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int USERS_PER_WRITER = 20_000;
+
+    @ParameterizedTest(name = "{0} shards")
+    @ValueSource(ints = {0, 1, 2, 4, 8})
+    public void writeThroughput(int shards) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TestRestApiApplication.class)
+                .properties("server.port=0",
+                        "sharding.enabled=" + (shards > 0),
+                        "sharding.shards=" + Math.max(1, shards),
+                        "sharding.pool-size=" + WRITERS)
+                .run()) {
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            long initialCount = userRepository.count();
+
+            ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+            long start = System.nanoTime();
+            List<Future<?>> results = new ArrayList<>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                int prefix = writer;
+                results.add(writers.submit(() -> {
+                    for (int i = 0; i < USERS_PER_WRITER; i++) {
+                        userRepository.save(user("writer-" + prefix + "-" + i + "@example.com"));
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            writers.shutdown();
+
+            log.info("{} shards: {} inserts/s with {} writers",
+                    shards, Math.round(WRITERS * USERS_PER_WRITER / seconds), WRITERS);
+            assertThat(userRepository.count()).isEqualTo(initialCount + (long) WRITERS * USERS_PER_WRITER);
+        }
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email(email)
+                .dayOfBirth(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.nordigy.testrestapi.benchmark;
+
+import com.nordigy.testrestapi.config.sqlite.SQLiteConfiguration;
+import com.nordigy.testrestapi.config.sqlite.SQLiteConnectionPools;
+import com.nordigy.testrestapi.config.sqlite.SQLiteProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares write and read throughput of in-memory H2 and the SQLite storage profile at a million users.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class StorageThroughputBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageThroughputBenchmarkTest.class);
+
+    private static final int USERS = 1_000_000;
+    private static final int BATCH_SIZE = 10_000;
+    private static final int READ_THREADS = 8;
+    private static final int READS_PER_THREAD = 50_000;
+
+    @Test
+    public void h2() throws Exception {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(READ_THREADS);
+        try (HikariDataSource dataSource = new HikariDataSource(config)) {
+            run("H2 in-memory", dataSource, dataSource,
+                    "CREATE TABLE user (id BIGINT AUTO_INCREMENT PRIMARY KEY, first_name VARCHAR(30), "
+                            + "last_name VARCHAR(15), email VARCHAR(255) UNIQUE, day_of_birth DATE)");
+        }
+    }
+
+    @Test
+    public void sqlite(@TempDir Path directory) throws Exception {
+        SQLiteProperties properties = new SQLiteProperties();
+        properties.setPath(directory.resolve("users.db").toString());
+        properties.setReadPoolSize(READ_THREADS);
+        SQLiteConfiguration configuration = new SQLiteConfiguration();
+        try (SQLiteConnectionPools pools = configuration.sqliteConnectionPools(properties)) {
+            run("SQLite WAL", pools.getWriter(), pools.getReader(),
+                    "CREATE TABLE user (id INTEGER, first_name VARCHAR(30), last_name VARCHAR(15), "
+                            + "email VARCHAR(255) UNIQUE, day_of_birth DATE, PRIMARY KEY (id))");
+        }
+    }
+
+    private void run(String name, DataSource writer, DataSource reader, String ddl) throws Exception {
+        try (Connection connection = writer.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(ddl);
+        }
+
+        long start = System.nanoTime();
+        try (Connection connection = writer.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO user (first_name, last_name, email, day_of_birth) VALUES (?, ?, ?, ?)")) {
+            connection.setAutoCommit(false);
+            for (int i = 1; i <= USERS; i++) {
+                insert.setString(1, "John");
+                insert.setString(2, "Doe");
+                insert.setString(3, "workingemail-" + i + "@gmail.com");
+                insert.setDate(4, Date.valueOf(LocalDate.of(1970, 1, 1).plusDays(i % 20_000)));
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            connection.commit();
+        }
+        double writesPerSecond = USERS / seconds(start);
+
+        ExecutorService readers = Executors.newFixedThreadPool(READ_THREADS);
+        start = System.nanoTime();
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < READ_THREADS; i++) {
+            results.add(readers.submit(() -> readRandomUsers(reader)));
+        }
+        int found = 0;
+        for (Future<Integer> result : results) {
+            found += result.get();
+        }
+        double readsPerSecond = READ_THREADS * READS_PER_THREAD / seconds(start);
+        readers.shutdown();
+
+        log.info("{}: {} users, {} inserts/s, {} point reads/s with {} readers",
+                name, USERS, Math.round(writesPerSecond), Math.round(readsPerSecond), READ_THREADS);
+        assertThat(found).isEqualTo(READ_THREADS * READS_PER_THREAD);
+    }
+
+    private static int readRandomUsers(DataSource dataSource) throws SQLException {
+        int found = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(
+                     "SELECT id, first_name, last_name, email, day_of_birth FROM user WHERE id = ?")) {
+            for (int i = 0; i < READS_PER_THREAD; i++) {
+                select.setLong(1, 1 + ThreadLocalRandom.current().nextInt(USERS));
+                try (ResultSet resultSet = select.executeQuery()) {
+                    if (resultSet.next()) {
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+}
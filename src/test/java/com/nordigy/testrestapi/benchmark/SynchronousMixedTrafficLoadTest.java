@@ -0,0 +1,8 @@
+package com.nordigy.testrestapi.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"bulkhead.enabled=false", "admission.enabled=false"})
+class SynchronousMixedTrafficLoadTest extends AbstractMixedTrafficLoadTest {
+}
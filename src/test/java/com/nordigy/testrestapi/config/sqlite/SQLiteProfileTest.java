@@ -0,0 +1,150 @@
+package com.nordigy.testrestapi.config.sqlite;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Runs the API against a SQLite database in a temporary file, through Hibernate and the SQLite dialect.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.profiles.active=sqlite", "admission.enabled=false"})
+class SQLiteProfileTest {
+
+    @LocalServerPort
+    private int port;
+
+    private RequestSpecification api;
+
+    @DynamicPropertySource
+    static void databaseFile(DynamicPropertyRegistry registry) throws IOException {
+        String path = Files.createTempDirectory("sqlite").resolve("users.db").toString();
+        registry.add("sqlite.path", () -> path);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        api = given().port(port);
+    }
+
+    @Test
+    public void shouldListAndFindUsers() {
+        given(api)
+                .queryParam("size", 5)
+                .queryParam("sort", "email,desc")
+                .when().get("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("page.totalElements", is(20))
+                .body("_embedded.users.size()", is(5))
+                .body("_embedded.users[0].email", is("workingemail-9@gmail.com"));
+        given(api)
+                .when().get("/api/users/3")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("email", is("workingemail-3@gmail.com"));
+    }
+
+    @Test
+    public void shouldFilterUsersWithQuerydsl() {
+        given(api)
+                .queryParam("email", "workingemail-12@gmail.com")
+                .when().get("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("page.totalElements", is(1))
+                .body("_embedded.users[0].id", is(12));
+        given(api)
+                .queryParam("lastName", "Nobody")
+                .when().get("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("page.totalElements", is(0));
+        given(api)
+                .queryParam("firstName", "John")
+                .queryParam("size", 100)
+                .when().get("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("_embedded.users.firstName", everyItem(is("John")));
+    }
+
+    @Test
+    public void shouldCreateUpdatePatchAndDeleteUser() {
+        int id = given(api)
+                .body(user("Ivan", "sqlite@example.com"))
+                .contentType(ContentType.JSON)
+                .when().post("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(201)
+                .extract().path("id");
+
+        given(api)
+                .body(user("Petr", "sqlite-put@example.com"))
+                .contentType(ContentType.JSON)
+                .when().put("/api/users/" + id)
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("firstName", is("Petr"))
+                .body("email", is("sqlite-put@example.com"));
+
+        ObjectNode patch = new ObjectMapper().createObjectNode().put("lastName", "Patched");
+        given(api)
+                .body(patch)
+                .contentType(ContentType.JSON)
+                .when().patch("/api/users/" + id)
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("firstName", is("Petr"))
+                .body("lastName", is("Patched"));
+
+        given(api)
+                .when().get("/api/users/" + id)
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("email", is("sqlite-put@example.com"))
+                .body("lastName", is("Patched"));
+
+        given(api)
+                .when().delete("/api/users/" + id)
+                .then().log().ifValidationFails()
+                .statusCode(204);
+        given(api)
+                .when().get("/api/users/" + id)
+                .then().log().ifValidationFails()
+                .statusCode(404);
+    }
+
+    @Test
+    public void shouldRejectDuplicateEmail() {
+        given(api)
+                .body(user("Ivan", "workingemail-1@gmail.com"))
+                .contentType(ContentType.JSON)
+                .when().post("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(409);
+    }
+
+    private static ObjectNode user(String firstName, String email) {
+        ObjectNode user = new ObjectMapper().createObjectNode();
+        user.put("firstName", firstName);
+        user.put("lastName", "Ivanov");
+        user.put("dayOfBirth", "2000-01-01");
+        user.put("email", email);
+        return user;
+    }
+}
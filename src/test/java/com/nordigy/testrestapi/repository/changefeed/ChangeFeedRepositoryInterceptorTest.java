@@ -0,0 +1,114 @@
+package com.nordigy.testrestapi.repository.changefeed;
+
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.model.UserChange;
+import com.nordigy.testrestapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ChangeFeedRepositoryInterceptorTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserChangeFeed changeFeed;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void shouldAppendRepositoryWrites() {
+        String token = changeFeed.currentToken();
+
+        User user = userRepository.save(user("repository@example.com"));
+        user.setLastName("Petrov");
+        userRepository.save(user);
+        userRepository.deleteById(user.getId());
+
+        List<UserChange> changes = changeFeed.changesSince(token, 10).getChanges();
+        assertThat(changes).extracting(UserChange::getType)
+                .containsExactly(UserChange.Type.CREATED, UserChange.Type.UPDATED, UserChange.Type.DELETED);
+        assertThat(changes).extracting(UserChange::getId).containsOnly(user.getId());
+        assertThat(changes.get(1).getUser().getLastName()).isEqualTo("Petrov");
+    }
+
+    @Test
+    public void shouldAppendWritesOfSurroundingTransactionOnCommitOnly() {
+        String token = changeFeed.currentToken();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            userRepository.save(user("rolled-back@example.com"));
+            status.setRollbackOnly();
+            return null;
+        });
+        assertThat(changeFeed.changesSince(token, 10).getChanges()).isEmpty();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            userRepository.save(user("committed@example.com"));
+            assertThat(changeFeed.changesSince(token, 10).getChanges()).isEmpty();
+            return null;
+        });
+        assertThat(changeFeed.changesSince(token, 10).getChanges())
+                .extracting(change -> change.getUser().getEmail())
+                .containsExactly("committed@example.com");
+    }
+
+    @Test
+    public void shouldSequenceWritesInCommitOrder() throws Exception {
+        String token = changeFeed.currentToken();
+        CountDownLatch saved = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    userRepository.save(user("first@example.com"));
+                    saved.countDown();
+                    await(commit);
+                    return null;
+                }));
+        assertThat(saved.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<User> second = CompletableFuture.supplyAsync(() ->
+                userRepository.save(user("second@example.com")));
+
+        // The second write waits until the first one has committed.
+        Thread.sleep(200);
+        assertThat(second).isNotDone();
+        commit.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        assertThat(changeFeed.changesSince(token, 10).getChanges())
+                .extracting(change -> change.getUser().getEmail())
+                .containsExactly("first@example.com", "second@example.com");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .email(email)
+                .dayOfBirth(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.nordigy.testrestapi.repository.changefeed;
+
+import com.nordigy.testrestapi.config.ChangeFeedProperties;
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.model.UserChange;
+import com.nordigy.testrestapi.model.UserChangeBatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UserChangeFeedTest {
+
+    private UserChangeFeed changeFeed;
+
+    @BeforeEach
+    public void setUp() {
+        ChangeFeedProperties properties = new ChangeFeedProperties();
+        properties.setCapacity(2);
+        changeFeed = new UserChangeFeed(properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        changeFeed.destroy();
+    }
+
+    @Test
+    public void shouldReturnChangesAfterRetainedToken() {
+        String token = changeFeed.currentToken();
+        changeFeed.append(UserChange.Type.CREATED, user(1));
+        changeFeed.append(UserChange.Type.UPDATED, user(1));
+
+        UserChangeBatch batch = changeFeed.changesSince(token, 10);
+
+        assertThat(batch.isResyncRequired()).isFalse();
+        assertThat(batch.getChanges()).extracting(UserChange::getType)
+                .containsExactly(UserChange.Type.CREATED, UserChange.Type.UPDATED);
+        assertThat(batch.getNextToken()).isEqualTo(changeFeed.currentToken());
+    }
+
+    @Test
+    public void shouldRequireResyncOnceTokenIsOverwritten() {
+        String token = changeFeed.currentToken();
+        changeFeed.append(UserChange.Type.CREATED, user(1));
+        changeFeed.append(UserChange.Type.CREATED, user(2));
+        changeFeed.append(UserChange.Type.DELETED, user(1));
+
+        UserChangeBatch batch = changeFeed.changesSince(token, 10);
+
+        assertThat(batch.isResyncRequired()).isTrue();
+        assertThat(batch.getChanges()).isEmpty();
+        assertThat(batch.getNextToken()).isEqualTo(changeFeed.currentToken());
+    }
+
+    @Test
+    public void shouldResyncSlowSubscriberWithoutHoldingUpOthers() throws Exception {
+        ChangeFeedProperties properties = new ChangeFeedProperties();
+        properties.setSubscriberQueueSize(2);
+        UserChangeFeed feed = new UserChangeFeed(properties);
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter slow = mock(SseEmitter.class);
+        doAnswer(invocation -> release.await(10, TimeUnit.SECONDS)).when(slow).send(any(SseEventBuilder.class));
+        SseEmitter fast = mock(SseEmitter.class);
+        try {
+            feed.subscribe(slow, null);
+            feed.subscribe(fast, null);
+            feed.append(UserChange.Type.CREATED, user(1));
+            // The slow subscriber is stuck sending the first change, the second and third fill its queue.
+            verify(slow, timeout(5000)).send(any(SseEventBuilder.class));
+            verify(fast, timeout(5000)).send(any(SseEventBuilder.class));
+            for (int id = 2; id <= 4; id++) {
+                feed.append(UserChange.Type.CREATED, user(id));
+                verify(fast, timeout(5000).times(id)).send(any(SseEventBuilder.class));
+            }
+            verify(slow, never()).complete();
+
+            release.countDown();
+            ArgumentCaptor<SseEventBuilder> events = ArgumentCaptor.forClass(SseEventBuilder.class);
+            verify(slow, timeout(5000)).complete();
+            verify(slow, times(2)).send(events.capture());
+            assertThat(text(events.getAllValues().get(1)))
+                    .contains("event:resync")
+                    .contains("data:" + feed.currentToken());
+            verify(fast, never()).complete();
+        } finally {
+            release.countDown();
+            feed.destroy();
+        }
+    }
+
+    @Test
+    public void shouldResyncSubscriberTooFarBehind() throws Exception {
+        ChangeFeedProperties properties = new ChangeFeedProperties();
+        properties.setSubscriberQueueSize(1);
+        UserChangeFeed feed = new UserChangeFeed(properties);
+        SseEmitter emitter = mock(SseEmitter.class);
+        try {
+            String token = feed.currentToken();
+            feed.append(UserChange.Type.CREATED, user(1));
+            feed.append(UserChange.Type.CREATED, user(2));
+
+            feed.subscribe(emitter, token);
+
+            ArgumentCaptor<SseEventBuilder> events = ArgumentCaptor.forClass(SseEventBuilder.class);
+            verify(emitter, timeout(5000)).complete();
+            verify(emitter).send(events.capture());
+            assertThat(text(events.getValue())).contains("event:resync");
+        } finally {
+            feed.destroy();
+        }
+    }
+
+    private static String text(SseEventBuilder event) {
+        return event.build().stream()
+                .map(data -> String.valueOf(data.getData()))
+                .collect(Collectors.joining());
+    }
+
+    private static User user(long id) {
+        return User.builder()
+                .id(id)
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .email("ivan-" + id + "@example.com")
+                .dayOfBirth(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+}
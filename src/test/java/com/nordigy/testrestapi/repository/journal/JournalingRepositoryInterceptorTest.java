@@ -0,0 +1,82 @@
+package com.nordigy.testrestapi.repository.journal;
+
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"journal.enabled=true", "journal.fsync=none"})
+class JournalingRepositoryInterceptorTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserJournal journal;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        registry.add("journal.directory", directory::toString);
+    }
+
+    private List<UserRecord> records() throws IOException {
+        List<UserRecord> records = new ArrayList<>();
+        JournalFiles.readRecords(JournalFiles.segment(journal.getDirectory(), journal.getGeneration()),
+                JournalFiles.SEGMENT_MAGIC, records::add);
+        return records;
+    }
+
+    @Test
+    public void shouldJournalCommittedWritesOnly() throws IOException {
+        User user = userRepository.save(user("journaled@example.com"));
+        User duplicate = userRepository.findById(1L).orElseThrow();
+        duplicate.setEmail("journaled@example.com");
+        int journaled = records().size();
+
+        // The unique email is only checked when the update is flushed.
+        assertThatThrownBy(() -> userRepository.save(duplicate)).isInstanceOf(DataIntegrityViolationException.class);
+
+        List<UserRecord> records = records();
+        assertThat(records).hasSize(journaled);
+        UserRecord last = records.get(records.size() - 1);
+        assertThat(last.getOp()).isEqualTo(UserRecord.UPSERT);
+        assertThat(last.getUser()).isEqualTo(user);
+    }
+
+    @Test
+    @DirtiesContext
+    public void shouldRollBackWriteWhenAppendFails() {
+        long count = userRepository.count();
+        journal.markUnusable("test");
+
+        assertThatThrownBy(() -> userRepository.save(user("rolled-back@example.com")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Journal is unusable");
+        assertThat(userRepository.count()).isEqualTo(count);
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .email(email)
+                .dayOfBirth(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,220 @@
+package com.nordigy.testrestapi.repository.journal;
+
+import com.nordigy.testrestapi.config.JournalProperties;
+import com.nordigy.testrestapi.config.JournalProperties.FsyncPolicy;
+import com.nordigy.testrestapi.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Restores journals into fresh in-memory databases, as a restarted application would.
+ */
+class UserJournalRecoveryTest {
+
+    private static final int MAPPING_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    private final List<EmbeddedDatabase> databases = new ArrayList<>();
+    private final List<UserJournalCoordinator> coordinators = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (UserJournalCoordinator coordinator : coordinators) {
+            coordinator.destroy();
+        }
+        databases.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    /**
+     * Starts an application on an empty database: restores the journal and opens a new segment.
+     */
+    private Instance start() throws Exception {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("classpath:journal/schema.sql")
+                .build();
+        databases.add(database);
+        UserJournal journal = new UserJournal(directory, FsyncPolicy.NONE, MAPPING_SIZE);
+        UserJournalCoordinator coordinator = new UserJournalCoordinator(journal, database, new JournalProperties());
+        coordinators.add(coordinator);
+        coordinator.recover();
+        return new Instance(journal, coordinator, new JdbcTemplate(database));
+    }
+
+    @Test
+    public void shouldRestoreExactTableFromSnapshotAndJournal() throws Exception {
+        Instance first = start();
+        for (int i = 1; i <= 5; i++) {
+            first.insert("user-" + i + "@example.com");
+        }
+        first.coordinator.snapshot();
+        first.update(2, "changed@example.com");
+        first.delete(3);
+        first.insert("user-6@example.com");
+        List<Map<String, Object>> expected = first.rows();
+        first.coordinator.destroy();
+
+        Instance second = start();
+
+        assertThat(second.rows()).isEqualTo(expected);
+        assertThat(JournalFiles.snapshotGenerations(directory)).containsExactly(2L);
+    }
+
+    @Test
+    public void shouldRestoreFromJournalAcrossSeveralSegmentsAndMappings() throws Exception {
+        Instance first = start();
+        for (int i = 1; i <= 200; i++) {
+            first.insert("user-" + i + "@example.com");
+        }
+        first.coordinator.destroy();
+        Instance second = start();
+        second.delete(1);
+        second.journal.rotate();
+        second.insert("user-201@example.com");
+        List<Map<String, Object>> expected = second.rows();
+        second.coordinator.destroy();
+
+        Instance third = start();
+
+        assertThat(third.rows()).isEqualTo(expected).hasSize(200);
+    }
+
+    @Test
+    public void shouldIgnoreTornTailRecord() throws Exception {
+        Instance first = start();
+        first.insert("kept@example.com");
+        first.coordinator.destroy();
+        ByteBuffer torn = UserRecord.encode(ByteBuffer.allocate(512), UserRecord.UPSERT, user(2, "torn@example.com"));
+        torn.limit(torn.limit() - 3);
+        writeAtEndOfData(JournalFiles.segment(directory, 1), torn);
+
+        Instance second = start();
+
+        assertThat(second.emails()).containsExactly("kept@example.com");
+        second.insert("next@example.com");
+        second.coordinator.destroy();
+        assertThat(start().emails()).containsExactly("kept@example.com", "next@example.com");
+    }
+
+    @Test
+    public void shouldContinueIdsAndGenerationsAfterRestart() throws Exception {
+        Instance first = start();
+        first.insert("first@example.com");
+        first.insert("second@example.com");
+        first.delete(2);
+        assertThat(first.journal.getGeneration()).isEqualTo(1);
+        first.coordinator.destroy();
+
+        Instance second = start();
+        assertThat(second.journal.getGeneration()).isEqualTo(2);
+        assertThat(second.insert("third@example.com")).isEqualTo(3);
+        second.delete(3);
+        second.coordinator.snapshot();
+        assertThat(second.journal.getGeneration()).isEqualTo(3);
+        second.coordinator.destroy();
+
+        // The deleted ids 2 and 3 are only known from the snapshot now.
+        Instance third = start();
+        assertThat(third.journal.getGeneration()).isEqualTo(4);
+        assertThat(third.insert("fourth@example.com")).isEqualTo(4);
+        assertThat(third.emails()).containsExactly("first@example.com", "fourth@example.com");
+    }
+
+    @Test
+    public void shouldRefuseAppendsOnceUnusable() throws Exception {
+        Instance instance = start();
+        instance.journal.markUnusable("test");
+
+        assertThat(instance.journal.isUsable()).isFalse();
+        assertThatThrownBy(() -> instance.journal.append(UserRecord.UPSERT, user(1, "refused@example.com")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("test");
+    }
+
+    /**
+     * Writes the buffer right after the last intact record of the segment, as a crash during an append would.
+     */
+    private static void writeAtEndOfData(Path segment, ByteBuffer data) throws Exception {
+        long[] end = {JournalFiles.FILE_HEADER_SIZE};
+        JournalFiles.readRecords(segment, JournalFiles.SEGMENT_MAGIC, record -> end[0] += recordSize(record));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(data, end[0]);
+        }
+    }
+
+    private static int recordSize(UserRecord record) {
+        return UserRecord.encode(ByteBuffer.allocate(512), record.getOp(), record.getUser()).remaining();
+    }
+
+    private static User user(long id, String email) {
+        return User.builder()
+                .id(id)
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .email(email)
+                .dayOfBirth(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+
+    /**
+     * Mutates the table and journals the mutation, like the journaling repository does.
+     */
+    private static final class Instance {
+
+        private final UserJournal journal;
+        private final UserJournalCoordinator coordinator;
+        private final JdbcTemplate jdbcTemplate;
+
+        Instance(UserJournal journal, UserJournalCoordinator coordinator, JdbcTemplate jdbcTemplate) {
+            this.journal = journal;
+            this.coordinator = coordinator;
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        long insert(String email) {
+            jdbcTemplate.update("INSERT INTO user (first_name, last_name, email, day_of_birth) VALUES (?, ?, ?, ?)",
+                    "Ivan", "Ivanov", email, LocalDate.of(2000, 1, 1));
+            long id = jdbcTemplate.queryForObject("SELECT id FROM user WHERE email = ?", Long.class, email);
+            journal.append(UserRecord.UPSERT, user(id, email));
+            return id;
+        }
+
+        void update(long id, String email) {
+            jdbcTemplate.update("UPDATE user SET email = ? WHERE id = ?", email, id);
+            journal.append(UserRecord.UPSERT, user(id, email));
+        }
+
+        void delete(long id) {
+            jdbcTemplate.update("DELETE FROM user WHERE id = ?", id);
+            journal.append(UserRecord.DELETE, user(id, null));
+        }
+
+        List<Map<String, Object>> rows() {
+            return jdbcTemplate.queryForList("SELECT * FROM user ORDER BY id");
+        }
+
+        List<String> emails() {
+            return jdbcTemplate.queryForList("SELECT email FROM user ORDER BY id", String.class);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.nordigy.testrestapi.repository.journal;
+
+import com.nordigy.testrestapi.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserRecordTest {
+
+    private static final User USER = User.builder()
+            .id(42L)
+            .firstName("Jürgen")
+            .lastName("Smith")
+            .email("jurgen@example.com")
+            .dayOfBirth(LocalDate.of(1990, 2, 3))
+            .build();
+
+    private static ByteBuffer encode(byte op, User user) {
+        ByteBuffer record = UserRecord.encode(ByteBuffer.allocate(16), op, user);
+        ByteBuffer copy = ByteBuffer.allocate(record.remaining());
+        copy.put(record).flip();
+        return copy;
+    }
+
+    @Test
+    public void shouldRoundTripUpsert() {
+        UserRecord record = UserRecord.read(encode(UserRecord.UPSERT, USER));
+
+        assertThat(record.getOp()).isEqualTo(UserRecord.UPSERT);
+        assertThat(record.getUser()).isEqualTo(USER);
+    }
+
+    @Test
+    public void shouldRoundTripMissingFields() {
+        User user = User.builder().id(7L).build();
+
+        UserRecord record = UserRecord.read(encode(UserRecord.UPSERT, user));
+
+        assertThat(record.getUser()).isEqualTo(user);
+    }
+
+    @Test
+    public void shouldRoundTripDeleteAndClear() {
+        UserRecord delete = UserRecord.read(encode(UserRecord.DELETE, USER));
+        UserRecord clear = UserRecord.read(encode(UserRecord.CLEAR, new User()));
+
+        assertThat(delete.getOp()).isEqualTo(UserRecord.DELETE);
+        assertThat(delete.getUser()).isEqualTo(User.builder().id(42L).build());
+        assertThat(clear.getOp()).isEqualTo(UserRecord.CLEAR);
+    }
+
+    @Test
+    public void shouldReadConsecutiveRecordsAndStopAtEndOfData() {
+        ByteBuffer first = encode(UserRecord.UPSERT, USER);
+        ByteBuffer second = encode(UserRecord.DELETE, USER);
+        ByteBuffer source = ByteBuffer.allocate(first.remaining() + second.remaining() + 64);
+        source.put(first).put(second).flip();
+        source.limit(source.capacity());
+
+        assertThat(UserRecord.read(source).getOp()).isEqualTo(UserRecord.UPSERT);
+        assertThat(UserRecord.read(source).getOp()).isEqualTo(UserRecord.DELETE);
+        int end = source.position();
+        assertThat(UserRecord.read(source)).isNull();
+        assertThat(source.position()).isEqualTo(end);
+    }
+
+    @Test
+    public void shouldIgnoreTruncatedRecord() {
+        ByteBuffer record = encode(UserRecord.UPSERT, USER);
+
+        for (int length = 0; length < record.limit(); length++) {
+            ByteBuffer truncated = record.duplicate();
+            truncated.limit(length);
+            assertThat(UserRecord.read(truncated)).isNull();
+            assertThat(truncated.position()).isZero();
+        }
+    }
+
+    @Test
+    public void shouldIgnoreRecordWithCorruptedPayload() {
+        ByteBuffer record = encode(UserRecord.UPSERT, USER);
+        int last = record.limit() - 1;
+        record.put(last, (byte) (record.get(last) ^ 1));
+
+        assertThat(UserRecord.read(record)).isNull();
+        assertThat(record.position()).isZero();
+    }
+}
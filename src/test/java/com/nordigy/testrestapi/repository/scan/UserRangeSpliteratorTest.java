@@ -0,0 +1,139 @@
+package com.nordigy.testrestapi.repository.scan;
+
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.model.UserScanPlan;
+import com.nordigy.testrestapi.model.UserSplit;
+import com.nordigy.testrestapi.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserRangeSpliteratorTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private final TreeMap<Long, User> users = new TreeMap<>();
+    private UserRepository userRepository;
+
+    @BeforeEach
+    public void setUp() {
+        // Every third id of 1..300 is deleted, 301..999 are all deleted.
+        for (long id = 1; id <= 300; id++) {
+            if (id % 3 != 0) {
+                users.put(id, User.builder().id(id).build());
+            }
+        }
+        for (long id = 1000; id <= 1050; id++) {
+            users.put(id, User.builder().id(id).build());
+        }
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findByIdGreaterThanAndIdLessThanEqual(anyLong(), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> users.subMap(invocation.getArgument(0), false, invocation.getArgument(1), true)
+                        .values().stream()
+                        .limit(invocation.<Pageable>getArgument(2).getPageSize())
+                        .collect(Collectors.toList()));
+    }
+
+    private UserScanPlan plan() {
+        // The third split only holds deleted ids.
+        return new UserScanPlan(1050, "token", users.size(), List.of(
+                new UserSplit(0, 0, 100, 67),
+                new UserSplit(1, 100, 300, 133),
+                new UserSplit(2, 300, 999, 0),
+                new UserSplit(3, 999, 1050, 51)));
+    }
+
+    @Test
+    public void shouldReadEveryUserOnceWhenSplitCompletely() {
+        Deque<Spliterator<User>> pending = new ArrayDeque<>();
+        pending.push(UserRangeSpliterator.forPlan(userRepository, plan(), PAGE_SIZE));
+        List<Spliterator<User>> leaves = new ArrayList<>();
+        while (!pending.isEmpty()) {
+            Spliterator<User> spliterator = pending.pop();
+            Spliterator<User> prefix = spliterator.trySplit();
+            if (prefix == null) {
+                leaves.add(spliterator);
+            } else {
+                pending.push(spliterator);
+                pending.push(prefix);
+            }
+        }
+
+        List<Long> ids = new ArrayList<>();
+        leaves.forEach(leaf -> leaf.forEachRemaining(user -> ids.add(user.getId())));
+
+        assertThat(leaves.size()).isGreaterThan(4);
+        assertThat(ids).containsExactlyElementsOf(users.keySet());
+    }
+
+    @Test
+    public void shouldReadEveryUserOnceWhenSplitWhileReading() {
+        UserRangeSpliterator spliterator = UserRangeSpliterator.forPlan(userRepository, plan(), PAGE_SIZE);
+        List<Long> ids = new ArrayList<>();
+        List<Spliterator<User>> prefixes = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            spliterator.tryAdvance(user -> ids.add(user.getId()));
+        }
+        // The rest of the current page cannot be split off.
+        assertThat(spliterator.trySplit()).isNull();
+        for (int i = 3; i < PAGE_SIZE; i++) {
+            spliterator.tryAdvance(user -> ids.add(user.getId()));
+        }
+        Spliterator<User> prefix;
+        while ((prefix = spliterator.trySplit()) != null) {
+            prefixes.add(prefix);
+            spliterator.tryAdvance(user -> ids.add(user.getId()));
+        }
+        prefixes.forEach(split -> split.forEachRemaining(user -> ids.add(user.getId())));
+        spliterator.forEachRemaining(user -> ids.add(user.getId()));
+
+        assertThat(prefixes).isNotEmpty();
+        assertThat(ids).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(users.keySet());
+    }
+
+    @Test
+    public void shouldReadEveryUserOnceInParallel() {
+        List<Long> ids = StreamSupport.stream(UserRangeSpliterator.forPlan(userRepository, plan(), PAGE_SIZE), true)
+                .map(User::getId)
+                .collect(Collectors.toList());
+
+        assertThat(ids).containsExactlyElementsOf(users.keySet());
+    }
+
+    @Test
+    public void shouldReadNothingFromEmptyPlan() {
+        UserScanPlan plan = new UserScanPlan(0, "token", 0, List.of(new UserSplit(0, 0, 0, 0)));
+        UserRangeSpliterator spliterator = UserRangeSpliterator.forPlan(userRepository, plan, PAGE_SIZE);
+
+        assertThat(spliterator.trySplit()).isNull();
+        assertThat(spliterator.tryAdvance(user -> {
+        })).isFalse();
+        assertThat(spliterator.estimateSize()).isZero();
+    }
+
+    @Test
+    public void shouldReadNothingFromRangeOfDeletedUsers() {
+        UserScanPlan plan = new UserScanPlan(999, "token", 0, List.of(new UserSplit(0, 300, 999, 0)));
+
+        List<User> read = new ArrayList<>();
+        UserRangeSpliterator.forPlan(userRepository, plan, PAGE_SIZE).forEachRemaining(read::add);
+
+        assertThat(read).isEmpty();
+    }
+}
@@ -0,0 +1,156 @@
+package com.nordigy.testrestapi.repository.scan;
+
+import com.nordigy.testrestapi.config.ChangeFeedProperties;
+import com.nordigy.testrestapi.model.User;
+import com.nordigy.testrestapi.model.UserChange;
+import com.nordigy.testrestapi.model.UserChangeBatch;
+import com.nordigy.testrestapi.model.UserScanPage;
+import com.nordigy.testrestapi.model.UserScanPlan;
+import com.nordigy.testrestapi.model.UserSplit;
+import com.nordigy.testrestapi.repository.UserRepository;
+import com.nordigy.testrestapi.repository.changefeed.UserChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class UserScanPlannerTest {
+
+    @Autowired
+    private UserScanPlanner planner;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserChangeFeed changeFeed;
+
+    @Test
+    public void shouldCatchUpWithWritesMadeDuringScan() {
+        UserScanPlan plan = planner.plan(4);
+        List<UserSplit> splits = plan.getSplits();
+        assertThat(splits).hasSizeGreaterThan(2);
+        Map<Long, String> emails = new HashMap<>();
+        scan(splits.get(0), emails);
+
+        // Writes to a split that was read already, to one that was not, and above the high watermark.
+        User scanned = userRepository.findById(emails.keySet().iterator().next()).orElseThrow();
+        scanned.setEmail("scanned-updated@example.com");
+        userRepository.save(scanned);
+        User unscanned = first(splits.get(1));
+        unscanned.setEmail("unscanned-updated@example.com");
+        userRepository.save(unscanned);
+        User deleted = first(splits.get(2));
+        userRepository.delete(deleted);
+        User created = userRepository.save(user("created-during-scan@example.com"));
+
+        splits.subList(1, splits.size()).forEach(split -> scan(split, emails));
+        String token = plan.getSyncToken();
+        UserChangeBatch batch;
+        do {
+            batch = changeFeed.changesSince(token, 100);
+            assertThat(batch.isResyncRequired()).isFalse();
+            for (UserChange change : batch.getChanges()) {
+                if (change.getType() == UserChange.Type.DELETED) {
+                    emails.remove(change.getId());
+                } else {
+                    emails.put(change.getId(), change.getUser().getEmail());
+                }
+            }
+            token = batch.getNextToken();
+        } while (!batch.getChanges().isEmpty());
+
+        Map<Long, String> expected = StreamSupport.stream(userRepository.findAll().spliterator(), false)
+                .collect(Collectors.toMap(User::getId, User::getEmail));
+        assertThat(emails).isEqualTo(expected)
+                .containsEntry(scanned.getId(), "scanned-updated@example.com")
+                .containsEntry(unscanned.getId(), "unscanned-updated@example.com")
+                .containsEntry(created.getId(), "created-during-scan@example.com")
+                .doesNotContainKey(deleted.getId());
+        assertThat(created.getId()).isGreaterThan(plan.getHighWatermark());
+    }
+
+    @Test
+    public void shouldSplitByIdSample() {
+        // 1000 users with ids 2, 4, ..., 2000.
+        UserRepository repository = repository(1000, 2, 2000,
+                LongStream.rangeClosed(1, 1000).map(id -> id * 2).boxed().collect(Collectors.toList()));
+
+        List<UserSplit> splits = new UserScanPlanner(repository, changeFeed()).plan(4).getSplits();
+
+        assertThat(splits).extracting(UserSplit::getUpToId).containsExactly(501L, 1001L, 1501L, 2000L);
+        assertThat(splits).extracting(UserSplit::getEstimatedSize).containsOnly(250L);
+    }
+
+    @Test
+    public void shouldSplitEvenlyWhenSampleMissesGappedIds() {
+        // 4000 users with odd ids 1..7999: the stride of 4 hits none of them.
+        UserRepository repository = repository(4000, 1, 7999, List.of());
+
+        UserScanPlan plan = new UserScanPlanner(repository, changeFeed()).plan(4);
+
+        assertThat(plan.getTotalUsers()).isEqualTo(4000);
+        assertThat(plan.getSplits()).extracting(UserSplit::getAfterId).containsExactly(0L, 1999L, 3999L, 5999L);
+        assertThat(plan.getSplits()).extracting(UserSplit::getUpToId).containsExactly(1999L, 3999L, 5999L, 7999L);
+        assertThat(plan.getSplits()).extracting(UserSplit::getEstimatedSize)
+                .allSatisfy(size -> assertThat(size).isBetween(999L, 1000L));
+    }
+
+    private static UserRepository repository(long total, long minId, long maxId, List<Long> sample) {
+        UserRepository repository = mock(UserRepository.class);
+        when(repository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(0);
+            Sort.Order order = pageable.getSort().getOrderFor("id");
+            long id = order != null && order.isDescending() ? maxId : minId;
+            return new PageImpl<>(List.of(User.builder().id(id).build()), pageable, total);
+        });
+        when(repository.findIdSample(anyLong(), anyLong(), anyLong())).thenReturn(sample);
+        return repository;
+    }
+
+    private static UserChangeFeed changeFeed() {
+        return new UserChangeFeed(new ChangeFeedProperties());
+    }
+
+    private User first(UserSplit split) {
+        return planner.scan(split.getAfterId(), split.getUpToId(), 1).getUsers().get(0);
+    }
+
+    private void scan(UserSplit split, Map<Long, String> emails) {
+        long after = split.getAfterId();
+        UserScanPage page;
+        do {
+            page = planner.scan(after, split.getUpToId(), 3);
+            page.getUsers().forEach(user -> emails.put(user.getId(), user.getEmail()));
+            if (page.getNextAfter() != null) {
+                after = page.getNextAfter();
+            }
+        } while (page.getNextAfter() != null);
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .email(email)
+                .dayOfBirth(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+}
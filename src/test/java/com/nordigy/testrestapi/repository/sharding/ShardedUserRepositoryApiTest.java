@@ -0,0 +1,179 @@
+package com.nordigy.testrestapi.repository.sharding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Runs the API on four shards: list queries are answered by merging the shards' results.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"sharding.enabled=true", "sharding.shards=4", "admission.enabled=false"})
+class ShardedUserRepositoryApiTest {
+
+    private static final int USERS = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserShards shards;
+
+    private RequestSpecification api;
+
+    @BeforeEach
+    public void setUp() {
+        api = given().port(port);
+    }
+
+    @Test
+    public void shouldSpreadUsersOverShards() {
+        List<Long> counts = shards.scatter(shard -> shard.read(repository -> repository.count()));
+
+        assertThat(counts.stream().mapToLong(Long::longValue).sum()).isEqualTo(USERS);
+        assertThat(counts.stream().filter(count -> count > 0).count()).isGreaterThan(1);
+    }
+
+    @Test
+    public void shouldReturnPageWithGlobalTotals() {
+        given(api)
+                .queryParam("page", 2)
+                .queryParam("size", 3)
+                .when().get("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("page.size", is(3))
+                .body("page.number", is(2))
+                .body("page.totalElements", is(USERS))
+                .body("page.totalPages", is(7))
+                .body("_embedded.users.id", is(List.of(7, 8, 9)));
+        given(api)
+                .queryParam("page", 6)
+                .queryParam("size", 3)
+                .when().get("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .body("page.totalElements", is(USERS))
+                .body("_embedded.users.id", is(List.of(19, 20)));
+    }
+
+    @Test
+    public void shouldSortAcrossShards() {
+        List<String> emails = given(api)
+                .queryParam("size", 100)
+                .queryParam("sort", "email,asc")
+                .when().get("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .extract().jsonPath().getList("_embedded.users.email", String.class);
+
+        assertThat(emails).hasSize(USERS).isSorted();
+    }
+
+    @Test
+    public void shouldPageSortedUsersAcrossShards() {
+        List<Map<String, Object>> users = users(given(api).queryParam("size", 100));
+        List<Integer> expected = users.stream()
+                .sorted(Comparator.<Map<String, Object>, String>comparing(user -> (String) user.get("lastName"))
+                        .reversed()
+                        .thenComparing(user -> (Integer) user.get("id")))
+                .map(user -> (Integer) user.get("id"))
+                .collect(Collectors.toList());
+
+        // Pages that are not a multiple of the shard count start in the middle of every shard's results.
+        List<Integer> paged = new ArrayList<>();
+        for (int page = 0; page < 7; page++) {
+            users(given(api).queryParam("page", page).queryParam("size", 3).queryParam("sort", "lastName,desc"))
+                    .forEach(user -> paged.add((Integer) user.get("id")));
+        }
+
+        assertThat(paged).isEqualTo(expected);
+    }
+
+    @Test
+    public void shouldRejectEmailOfUserInAnotherShard() {
+        int id = given(api)
+                .body(user("sharded@example.com"))
+                .contentType(ContentType.JSON)
+                .when().post("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(201)
+                .extract().path("id");
+        try {
+            // Ids are allocated before a write is validated, so the next insert would get id + 1.
+            String otherShardEmail = emailInOtherShardThan(id + 1);
+            given(api)
+                    .body(user(otherShardEmail))
+                    .contentType(ContentType.JSON)
+                    .when().post("/api/users")
+                    .then().log().ifValidationFails()
+                    .statusCode(409);
+
+            given(api)
+                    .body(user(emailInOtherShardThan(id)))
+                    .contentType(ContentType.JSON)
+                    .when().put("/api/users/" + id)
+                    .then().log().ifValidationFails()
+                    .statusCode(409);
+            given(api)
+                    .when().get("/api/users/" + id)
+                    .then().log().ifValidationFails()
+                    .statusCode(200)
+                    .body("email", is("sharded@example.com"));
+        } finally {
+            given(api)
+                    .when().delete("/api/users/" + id)
+                    .then().log().ifValidationFails()
+                    .statusCode(204);
+        }
+    }
+
+    private String emailInOtherShardThan(long id) {
+        UserShard shard = shards.shardFor(id);
+        for (long other = 1; other <= USERS; other++) {
+            if (shards.shardFor(other) != shard) {
+                return given(api)
+                        .when().get("/api/users/" + other)
+                        .then().log().ifValidationFails()
+                        .statusCode(200)
+                        .extract().path("email");
+            }
+        }
+        throw new IllegalStateException("All users are in shard " + shard.getIndex());
+    }
+
+    private static List<Map<String, Object>> users(RequestSpecification request) {
+        JsonPath body = request
+                .when().get("/api/users")
+                .then().log().ifValidationFails()
+                .statusCode(200)
+                .extract().jsonPath();
+        return body.getList("_embedded.users");
+    }
+
+    private static ObjectNode user(String email) {
+        ObjectNode user = new ObjectMapper().createObjectNode();
+        user.put("firstName", "Ivan");
+        user.put("lastName", "Ivanov");
+        user.put("dayOfBirth", "2000-01-01");
+        user.put("email", email);
+        return user;
+    }
+}
@@ -0,0 +1,54 @@
+package com.nordigy.testrestapi.repository.sharding;
+
+import com.nordigy.testrestapi.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedMergeTest {
+
+    @Test
+    public void shouldCutPageAcrossSourceBoundaries() {
+        List<List<Integer>> sources = List.of(List.of(1, 4, 7, 10), List.of(2, 5, 8), List.of(), List.of(3, 6, 9));
+
+        assertThat(SortedMerge.merge(sources, Comparator.<Integer>naturalOrder(), 0, 3)).containsExactly(1, 2, 3);
+        assertThat(SortedMerge.merge(sources, Comparator.<Integer>naturalOrder(), 3, 3)).containsExactly(4, 5, 6);
+        assertThat(SortedMerge.merge(sources, Comparator.<Integer>naturalOrder(), 8, 3)).containsExactly(9, 10);
+        assertThat(SortedMerge.merge(sources, Comparator.<Integer>naturalOrder(), 10, 3)).isEmpty();
+    }
+
+    @Test
+    public void shouldBreakTiesById() {
+        Sort sort = Sort.by(Sort.Direction.DESC, "lastName");
+        List<User> first = List.of(user(2, "Smith"), user(3, "Doe"));
+        List<User> second = List.of(user(1, "Smith"), user(4, "Smith"), user(5, "Doe"));
+
+        List<User> merged = SortedMerge.merge(List.of(first, second), SortedMerge.comparator(sort), 1, 3);
+
+        assertThat(SortedMerge.withIdTieBreak(sort)).isEqualTo(sort.and(Sort.by("id")));
+        assertThat(merged.stream().map(User::getId).collect(Collectors.toList())).containsExactly(2L, 4L, 3L);
+    }
+
+    @Test
+    public void shouldKeepExplicitIdOrder() {
+        Sort sort = Sort.by(Sort.Direction.DESC, "id");
+        List<User> first = List.of(user(6, "Doe"), user(2, "Doe"));
+        List<User> second = List.of(user(5, "Doe"), user(3, "Doe"));
+
+        List<User> merged = SortedMerge.merge(List.of(first, second), SortedMerge.comparator(sort), 0, 10);
+
+        assertThat(SortedMerge.withIdTieBreak(sort)).isEqualTo(sort);
+        assertThat(merged.stream().map(User::getId).collect(Collectors.toList())).containsExactly(6L, 5L, 3L, 2L);
+    }
+
+    private static User user(long id, String lastName) {
+        User user = User.builder().firstName("John").lastName(lastName).build();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,186 @@
+package com.nordigy.testrestapi.repository.singleflight;
+
+import com.nordigy.testrestapi.config.SingleFlightProperties;
+import com.nordigy.testrestapi.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightRepositoryInterceptorTest {
+
+    private final ExecutorService requests = Executors.newCachedThreadPool();
+    private final Users target = new Users();
+
+    @AfterEach
+    public void tearDown() {
+        target.release.countDown();
+        requests.shutdownNow();
+    }
+
+    private static SingleFlightRepositoryInterceptor interceptor(Duration waitTimeout) {
+        SingleFlightProperties properties = new SingleFlightProperties();
+        properties.setWaitTimeout(waitTimeout);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("singleFlightProperties", properties);
+        return new SingleFlightRepositoryInterceptor(beanFactory.getBeanProvider(SingleFlightProperties.class));
+    }
+
+    private UserReads proxy(SingleFlightRepositoryInterceptor interceptor) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(UserReads.class);
+        proxyFactory.addAdvice(interceptor);
+        return (UserReads) proxyFactory.getProxy();
+    }
+
+    /**
+     * Reads the user from another thread, as a GET request would.
+     */
+    private Future<Optional<User>> get(UserReads users, long id) {
+        return requests.submit(() -> {
+            RequestContextHolder.setRequestAttributes(
+                    new ServletRequestAttributes(new MockHttpServletRequest("GET", "/api/users/" + id)));
+            try {
+                return users.findById(id);
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        });
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentIdenticalReads() throws Exception {
+        SingleFlightRepositoryInterceptor interceptor = interceptor(Duration.ofSeconds(30));
+        UserReads users = proxy(interceptor);
+
+        Future<Optional<User>> leader = get(users, 1);
+        assertThat(target.entered.await(10, TimeUnit.SECONDS)).isTrue();
+        Future<Optional<User>> follower = get(users, 1);
+        await(() -> interceptor.getStats().getInFlight() == 1 && !follower.isDone());
+        target.release.countDown();
+
+        User leaderUser = leader.get(10, TimeUnit.SECONDS).orElseThrow();
+        User followerUser = follower.get(10, TimeUnit.SECONDS).orElseThrow();
+        assertThat(target.reads.get()).isEqualTo(1);
+        assertThat(followerUser).isEqualTo(leaderUser).isNotSameAs(leaderUser);
+        SingleFlightStats stats = interceptor.getStats();
+        assertThat(stats.getExecuted()).isEqualTo(1);
+        assertThat(stats.getAbsorbed()).isEqualTo(1);
+        assertThat(stats.getInFlight()).isZero();
+    }
+
+    @Test
+    public void shouldNotServeReadsStartedAfterWriteFromEarlierFlight() throws Exception {
+        SingleFlightRepositoryInterceptor interceptor = interceptor(Duration.ofSeconds(30));
+        UserReads users = proxy(interceptor);
+
+        Future<Optional<User>> beforeWrite = get(users, 1);
+        assertThat(target.entered.await(10, TimeUnit.SECONDS)).isTrue();
+        users.save(user(1, "after@example.com"));
+        User afterWrite = get(users, 1).get(10, TimeUnit.SECONDS).orElseThrow();
+
+        assertThat(afterWrite.getEmail()).isEqualTo("after@example.com");
+        target.release.countDown();
+        assertThat(beforeWrite.get(10, TimeUnit.SECONDS).orElseThrow().getEmail()).isEqualTo("before@example.com");
+        assertThat(target.reads.get()).isEqualTo(2);
+        assertThat(interceptor.getStats().getAbsorbed()).isZero();
+    }
+
+    @Test
+    public void shouldQueryItselfWhenLeaderExceedsWaitTimeout() throws Exception {
+        SingleFlightRepositoryInterceptor interceptor = interceptor(Duration.ofMillis(100));
+        UserReads users = proxy(interceptor);
+
+        Future<Optional<User>> leader = get(users, 1);
+        assertThat(target.entered.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(get(users, 1).get(10, TimeUnit.SECONDS)).isPresent();
+
+        assertThat(leader.isDone()).isFalse();
+        assertThat(target.reads.get()).isEqualTo(2);
+        SingleFlightStats stats = interceptor.getStats();
+        assertThat(stats.getTimedOut()).isEqualTo(1);
+        assertThat(stats.getAbsorbed()).isZero();
+    }
+
+    @Test
+    public void shouldBypassReadsOutsideOfGetRequests() {
+        SingleFlightRepositoryInterceptor interceptor = interceptor(Duration.ofSeconds(30));
+        target.release.countDown();
+
+        assertThat(proxy(interceptor).findById(1L)).isPresent();
+        assertThat(interceptor.getStats().getBypassed()).isEqualTo(1);
+        assertThat(interceptor.getStats().getExecuted()).isZero();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+        // The follower registers as absorbed only once the flight lands, give it time to start waiting.
+        Thread.sleep(100);
+    }
+
+    private static User user(long id, String email) {
+        return User.builder().id(id).firstName("Ivan").lastName("Ivanov").email(email).build();
+    }
+
+    /**
+     * The read and write methods of the repository that the interceptor tells apart by name.
+     */
+    public interface UserReads {
+
+        Optional<User> findById(Long id);
+
+        User save(User user);
+    }
+
+    /**
+     * Blocks the first read until released, so that other reads can pile up behind it.
+     */
+    static class Users implements UserReads {
+
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger reads = new AtomicInteger();
+        private final Map<Long, User> users = new ConcurrentHashMap<>(Map.of(1L, user(1, "before@example.com")));
+
+        @Override
+        public Optional<User> findById(Long id) {
+            Optional<User> user = Optional.ofNullable(users.get(id));
+            if (reads.incrementAndGet() == 1) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return user;
+        }
+
+        @Override
+        public User save(User user) {
+            users.put(user.getId(), user);
+            return user;
+        }
+    }
+}
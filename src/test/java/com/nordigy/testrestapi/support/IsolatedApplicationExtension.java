@@ -0,0 +1,89 @@
+package com.nordigy.testrestapi.support;
+
+import com.nordigy.testrestapi.TestRestApiApplication;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts a separate application on its own port and with its own in-memory database for every test, seeded
+ * with the same users each time, so that tests can run concurrently and still start from the same data.
+ * <p>
+ * Tests receive a {@link RequestSpecification} for their application as a parameter:
+ * <pre>
+ * &#64;Test
+ * void test(RequestSpecification api) {
+ *     given(api).when().get("/api/users")...
+ * }
+ * </pre>
+ */
+public class IsolatedApplicationExtension implements BeforeEachCallback, ParameterResolver {
+
+    private static final Namespace NAMESPACE = Namespace.create(IsolatedApplicationExtension.class);
+
+    /**
+     * Random seed of the initial users, shared by all test applications.
+     */
+    private static final long DATA_SEED = 42;
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        application(context);
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == RequestSpecification.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return application(extensionContext).getRequestSpecification();
+    }
+
+    private static IsolatedApplication application(ExtensionContext context) {
+        return context.getStore(NAMESPACE)
+                .getOrComputeIfAbsent(IsolatedApplication.class, key -> IsolatedApplication.start(), IsolatedApplication.class);
+    }
+
+    /**
+     * Closed by JUnit together with the store of the test it was started for.
+     */
+    private static final class IsolatedApplication implements ExtensionContext.Store.CloseableResource {
+
+        private final ConfigurableApplicationContext context;
+        private final RequestSpecification requestSpecification;
+
+        private IsolatedApplication(ConfigurableApplicationContext context) {
+            this.context = context;
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            this.requestSpecification = new RequestSpecBuilder().setPort(port).build();
+        }
+
+        static IsolatedApplication start() {
+            return new IsolatedApplication(new SpringApplicationBuilder(TestRestApiApplication.class)
+                    .properties("server.port=0",
+                            "spring.datasource.generate-unique-name=true",
+                            "spring.jmx.enabled=false",
+                            "startup.seed-async=false",
+                            "startup.seed-random-seed=" + DATA_SEED)
+                    .run());
+        }
+
+        RequestSpecification getRequestSpecification() {
+            return requestSpecification;
+        }
+
+        @Override
+        public void close() {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- The user table as Hibernate creates it for H2.
+CREATE TABLE user (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    day_of_birth DATE NOT NULL,
+    email VARCHAR(255),
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    PRIMARY KEY (id)
+);
+ALTER TABLE user ADD CONSTRAINT uk_user_email UNIQUE (email);